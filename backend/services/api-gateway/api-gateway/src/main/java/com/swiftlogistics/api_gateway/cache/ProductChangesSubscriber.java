@@ -0,0 +1,75 @@
+package com.swiftlogistics.api_gateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Drops cached catalogue responses as soon as product-service reports a change. The Redis
+ * subscription is made in the background once the gateway is up and retried until Redis
+ * is reachable, so an outage never stops the gateway booting; meanwhile cached responses
+ * are only bounded by their TTL.
+ */
+public class ProductChangesSubscriber implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    // Must match the channel product-service publishes ProductChangedEvent to
+    public static final String PRODUCT_CHANGES_CHANNEL = "product-changes";
+
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ResponseCache responseCache;
+    private Disposable subscribing;
+
+    public ProductChangesSubscriber(RedisConnectionFactory connectionFactory, ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> onMessage(message.getBody()),
+                new ChannelTopic(PRODUCT_CHANGES_CHANNEL));
+        container.afterPropertiesSet();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        subscribing = Mono.fromRunnable(container::start)
+                .doOnError(e -> {
+                    System.out.println("⚠️ Could not subscribe to product changes, retrying: " + e.getMessage());
+                    container.stop();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    private void onMessage(byte[] body) {
+        Integer productId = null;
+        try {
+            JsonNode productIdNode = objectMapper.readTree(body).get("productId");
+            if (productIdNode != null && productIdNode.canConvertToInt()) {
+                productId = productIdNode.asInt();
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not read product change message, clearing the response cache: "
+                    + e.getMessage());
+        }
+        responseCache.invalidateProduct(productId);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (subscribing != null) {
+            subscribing.dispose();
+        }
+        container.destroy();
+    }
+}
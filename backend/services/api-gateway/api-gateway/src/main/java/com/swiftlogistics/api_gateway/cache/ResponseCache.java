@@ -0,0 +1,108 @@
+package com.swiftlogistics.api_gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded store of upstream GET responses keyed by path and query, plus the misses that
+ * are currently being fetched so identical concurrent requests can wait for one upstream
+ * call instead of each making their own.
+ *
+ * Every invalidation bumps a generation counter; a fetch that started before an
+ * invalidation is not stored, so a response read before a change cannot outlive it.
+ */
+public class ResponseCache {
+
+    public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long expiresAt) {}
+
+    private static final String ITEM_PREFIX = "/api/product/id/";
+
+    private final ConcurrentHashMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxEntries;
+
+    public ResponseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= cached.expiresAt()) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    // Stores the response unless something was invalidated since the fetch began
+    public void put(String key, CachedResponse response, long fetchGeneration) {
+        if (maxEntries <= 0 || generation.get() != fetchGeneration) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key, response);
+        if (generation.get() != fetchGeneration) {
+            entries.remove(key, response);
+        }
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Registers {@code fetch} as the pending upstream call for {@code key}. Returns null
+     * when the caller is now responsible for it, or the call already under way.
+     */
+    public CompletableFuture<CachedResponse> joinInFlight(String key, CompletableFuture<CachedResponse> fetch) {
+        return inFlight.putIfAbsent(key, fetch);
+    }
+
+    public void leaveInFlight(String key, CompletableFuture<CachedResponse> fetch) {
+        inFlight.remove(key, fetch);
+    }
+
+    /**
+     * Drops the product's own entries and every listing, since any listing may contain it.
+     * A null id drops everything.
+     */
+    public void invalidateProduct(Integer productId) {
+        generation.incrementAndGet();
+        if (productId == null) {
+            entries.clear();
+            return;
+        }
+        String item = ITEM_PREFIX + productId;
+        entries.keySet().removeIf(key -> !key.startsWith(ITEM_PREFIX) || isItemKey(key, item));
+    }
+
+    private static boolean isItemKey(String key, String item) {
+        return key.startsWith(item) && (key.length() == item.length() || key.charAt(item.length()) == '?');
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries first, then arbitrary ones until there is a tenth of the room free
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now >= entry.expiresAt());
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.swiftlogistics.api_gateway.cache;
+
+import com.swiftlogistics.api_gateway.cache.ResponseCache.CachedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves the public catalogue reads (GET /api/product, /api/product/id/{id} and
+ * /api/product/category/{c}) from {@link ResponseCache}, so a hit never reaches
+ * product-service. On a miss one request goes upstream and any identical requests that
+ * arrive meanwhile wait for its response. Only complete 200 responses are stored, each
+ * route with its own TTL; If-None-Match is answered here from the stored ETag.
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final String LISTING_PATH = "/api/product";
+    private static final String ITEM_PREFIX = "/api/product/id/";
+    private static final String CATEGORY_PREFIX = "/api/product/category/";
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL);
+
+    private final ResponseCache cache;
+    private final long listingTtlMs;
+    private final long itemTtlMs;
+    private final long categoryTtlMs;
+    private final int maxBodyBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public ResponseCacheFilter(ResponseCache cache, long listingTtlMs, long itemTtlMs, long categoryTtlMs,
+                               int maxBodyBytes, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.listingTtlMs = listingTtlMs;
+        this.itemTtlMs = itemTtlMs;
+        this.categoryTtlMs = categoryTtlMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.hits = meterRegistry.counter("gateway.response-cache", "result", "hit");
+        this.misses = meterRegistry.counter("gateway.response-cache", "result", "miss");
+        this.coalesced = meterRegistry.counter("gateway.response-cache", "result", "coalesced");
+        meterRegistry.gauge("gateway.response-cache.size", cache, ResponseCache::size);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        long ttlMs = ttlFor(request.getPath().value());
+        if (ttlMs <= 0) {
+            return chain.filter(exchange);
+        }
+
+        String query = request.getURI().getRawQuery();
+        String key = query == null ? request.getPath().value() : request.getPath().value() + "?" + query;
+        // Copied now: the upstream request below shares, and strips, the same header map
+        List<String> ifNoneMatch = List.copyOf(request.getHeaders().getIfNoneMatch());
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return respond(exchange.getResponse(), ifNoneMatch, cached);
+        }
+
+        CompletableFuture<CachedResponse> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> pending = cache.joinInFlight(key, fetch);
+        if (pending != null) {
+            coalesced.increment();
+            // A follower that disconnects must not cancel the fetch the others are waiting on
+            return Mono.fromFuture(pending, true)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(response -> response.isPresent()
+                            ? respond(exchange.getResponse(), ifNoneMatch, response.get())
+                            : chain.filter(exchange));
+        }
+
+        misses.increment();
+        long generation = cache.generation();
+        // Always fetch the full representation so it can be stored; conditionals are answered here
+        ServerHttpRequest upstream = request.mutate().headers(headers -> {
+            headers.remove(HttpHeaders.IF_NONE_MATCH);
+            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        }).build();
+        CachingResponse response = new CachingResponse(exchange.getResponse(), ifNoneMatch, key, ttlMs,
+                generation, fetch);
+        return chain.filter(exchange.mutate().request(upstream).response(response).build())
+                .doFinally(signal -> {
+                    // Anything not stored (error, non-200, too large) sends the waiters upstream themselves
+                    fetch.complete(null);
+                    cache.leaveInFlight(key, fetch);
+                });
+    }
+
+    private long ttlFor(String path) {
+        if (path.equals(LISTING_PATH) || path.equals(LISTING_PATH + "/")) {
+            return listingTtlMs;
+        }
+        if (path.startsWith(ITEM_PREFIX)) {
+            return itemTtlMs;
+        }
+        if (path.startsWith(CATEGORY_PREFIX)) {
+            return categoryTtlMs;
+        }
+        return 0;
+    }
+
+    private static Mono<Void> respond(ServerHttpResponse response, List<String> ifNoneMatch, CachedResponse cached) {
+        response.getHeaders().putAll(cached.headers());
+        if (notModified(ifNoneMatch, cached.headers().getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    // Weak comparison, as for GET: W/"x" matches "x"
+    private static boolean notModified(List<String> ifNoneMatch, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        String tag = stripWeak(etag);
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || stripWeak(candidate).equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // After rate limiting and before NettyWriteResponseFilter, so the upstream body is
+    // written through CachingResponse
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    /** Collects the upstream body, stores it if cacheable and answers the client from the copy. */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final List<String> ifNoneMatch;
+        private final String key;
+        private final long ttlMs;
+        private final long generation;
+        private final CompletableFuture<CachedResponse> fetch;
+
+        CachingResponse(ServerHttpResponse delegate, List<String> ifNoneMatch, String key, long ttlMs,
+                        long generation, CompletableFuture<CachedResponse> fetch) {
+            super(delegate);
+            this.ifNoneMatch = ifNoneMatch;
+            this.key = key;
+            this.ttlMs = ttlMs;
+            this.generation = generation;
+            this.fetch = fetch;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode())) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).defaultIfEmpty(bufferFactory().wrap(new byte[0])).flatMap(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+
+                HttpHeaders stored = new HttpHeaders();
+                for (String name : STORED_HEADERS) {
+                    List<String> values = getHeaders().get(name);
+                    if (values != null) {
+                        stored.put(name, values);
+                    }
+                }
+                CachedResponse response = new CachedResponse(HttpStatus.OK, HttpHeaders.readOnlyHttpHeaders(stored),
+                        bytes, System.currentTimeMillis() + ttlMs);
+                if (bytes.length <= maxBodyBytes) {
+                    cache.put(key, response, generation);
+                    fetch.complete(response);
+                }
+                getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+                return respond(getDelegate(), ifNoneMatch, response);
+            });
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.swiftlogistics.api_gateway.config;
+
+import com.swiftlogistics.common.loadbalancer.InstanceStats;
+import com.swiftlogistics.common.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Every lb:// route is balanced on measured latency and load instead of round-robin
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceStats instanceStats(@Value("${loadbalancer.latency-decay-ms:5000}") long decayMs,
+                                       @Value("${loadbalancer.ejection.consecutive-failures:5}") int ejectAfterFailures,
+                                       @Value("${loadbalancer.ejection.base-ms:10000}") long baseEjectionMs,
+                                       @Value("${loadbalancer.ejection.max-ms:120000}") long maxEjectionMs) {
+        return new InstanceStats(decayMs, ejectAfterFailures, baseEjectionMs, maxEjectionMs);
+    }
+}
@@ -0,0 +1,67 @@
+package com.swiftlogistics.api_gateway.config;
+
+import com.swiftlogistics.api_gateway.ratelimit.LoadSheddingFilter;
+import com.swiftlogistics.api_gateway.ratelimit.LocalTokenBucketStore;
+import com.swiftlogistics.api_gateway.ratelimit.RateLimitFilter;
+import com.swiftlogistics.api_gateway.ratelimit.RateLimitRule;
+import com.swiftlogistics.api_gateway.ratelimit.RedisTokenBucketStore;
+import com.swiftlogistics.api_gateway.ratelimit.TokenBucketStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Shared buckets so the limits hold across every gateway instance
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.redis.enabled", havingValue = "true")
+    public TokenBucketStore redisTokenBucketStore(ReactiveStringRedisTemplate redisTemplate,
+                                                  @Value("${gateway.rate-limit.max-keys:100000}") int maxKeys) {
+        return new RedisTokenBucketStore(redisTemplate, new LocalTokenBucketStore(maxKeys));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TokenBucketStore.class)
+    public TokenBucketStore localTokenBucketStore(@Value("${gateway.rate-limit.max-keys:100000}") int maxKeys) {
+        return new LocalTokenBucketStore(maxKeys);
+    }
+
+    // First match wins, so the specific routes come before the catch-all
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public RateLimitFilter rateLimitFilter(TokenBucketStore tokenBucketStore,
+                                           @Value("${gateway.rate-limit.checkout.per-second:0.5}") double checkoutPerSecond,
+                                           @Value("${gateway.rate-limit.checkout.burst:5}") int checkoutBurst,
+                                           @Value("${gateway.rate-limit.login.per-second:0.2}") double loginPerSecond,
+                                           @Value("${gateway.rate-limit.login.burst:5}") int loginBurst,
+                                           @Value("${gateway.rate-limit.default.per-second:20}") double defaultPerSecond,
+                                           @Value("${gateway.rate-limit.default.burst:40}") int defaultBurst,
+                                           MeterRegistry meterRegistry) {
+        List<RateLimitRule> rules = List.of(
+                RateLimitRule.of("checkout", HttpMethod.POST, "/api/order/checkout/**", checkoutPerSecond, checkoutBurst),
+                RateLimitRule.of("login", HttpMethod.POST, "/api/auth/login", loginPerSecond, loginBurst),
+                RateLimitRule.of("default", null, "/api/**", defaultPerSecond, defaultBurst));
+        return new RateLimitFilter(rules, tokenBucketStore, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.shedding.enabled", havingValue = "true", matchIfMissing = true)
+    public LoadSheddingFilter loadSheddingFilter(@Value("${gateway.shedding.critical-paths:/api/order/checkout/**,/api/auth/login}") List<String> criticalPaths,
+                                                 @Value("${gateway.shedding.latency-threshold-ms:1000}") long thresholdMs,
+                                                 @Value("${gateway.shedding.normal-multiplier:2.0}") double normalMultiplier,
+                                                 @Value("${gateway.shedding.ewma-alpha:0.2}") double alpha,
+                                                 @Value("${gateway.shedding.probe-interval-ms:1000}") long probeIntervalMs,
+                                                 MeterRegistry meterRegistry) {
+        return new LoadSheddingFilter(criticalPaths.stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                thresholdMs, normalMultiplier, alpha, probeIntervalMs, meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.swiftlogistics.api_gateway.config;
+
+import com.swiftlogistics.api_gateway.cache.ProductChangesSubscriber;
+import com.swiftlogistics.api_gateway.cache.ResponseCache;
+import com.swiftlogistics.api_gateway.cache.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+@Configuration
+@ConditionalOnProperty(name = "gateway.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(@Value("${gateway.cache.max-entries:10000}") int maxEntries) {
+        return new ResponseCache(maxEntries);
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCache responseCache,
+                                                   @Value("${gateway.cache.ttl-ms.listing:5000}") long listingTtlMs,
+                                                   @Value("${gateway.cache.ttl-ms.item:30000}") long itemTtlMs,
+                                                   @Value("${gateway.cache.ttl-ms.category:10000}") long categoryTtlMs,
+                                                   @Value("${gateway.cache.max-body-bytes:262144}") int maxBodyBytes,
+                                                   MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(responseCache, listingTtlMs, itemTtlMs, categoryTtlMs, maxBodyBytes,
+                meterRegistry);
+    }
+
+    @Bean
+    public ProductChangesSubscriber productChangesSubscriber(RedisConnectionFactory connectionFactory,
+                                                             ResponseCache responseCache) {
+        return new ProductChangesSubscriber(connectionFactory, responseCache);
+    }
+}
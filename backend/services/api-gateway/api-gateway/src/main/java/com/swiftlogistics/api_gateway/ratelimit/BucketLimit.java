@@ -0,0 +1,18 @@
+package com.swiftlogistics.api_gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/** A token bucket that refills {@code perSecond} tokens a second and holds at most {@code burst}. */
+public record BucketLimit(double perSecond, int burst) {
+
+    public BucketLimit {
+        if (perSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs perSecond > 0 and burst >= 1");
+        }
+    }
+
+    // Time it takes to refill one token
+    public long intervalNanos() {
+        return Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+    }
+}
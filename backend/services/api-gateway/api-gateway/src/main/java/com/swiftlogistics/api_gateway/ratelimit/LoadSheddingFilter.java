@@ -0,0 +1,128 @@
+package com.swiftlogistics.api_gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds load per route once its downstream latency (an EWMA of time to response headers)
+ * crosses {@code thresholdMs}: GETs are answered 503 first, other requests once latency
+ * reaches {@code normalMultiplier} times the threshold, and critical paths (checkout,
+ * login) are never shed. While a route is shedding, one request per probe interval is
+ * still let through so the average can recover.
+ */
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+
+    enum Priority { CRITICAL, NORMAL, LOW }
+
+    private final List<PathPattern> criticalPaths;
+    private final long thresholdNanos;
+    private final double normalMultiplier;
+    private final double alpha;
+    private final long probeIntervalNanos;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, RouteLatency> latencies = new ConcurrentHashMap<>();
+
+    public LoadSheddingFilter(List<PathPattern> criticalPaths, long thresholdMs, double normalMultiplier,
+                              double alpha, long probeIntervalMs, MeterRegistry meterRegistry) {
+        this.criticalPaths = criticalPaths;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.normalMultiplier = normalMultiplier;
+        this.alpha = alpha;
+        this.probeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(probeIntervalMs);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? "unrouted" : route.getId();
+        RouteLatency latency = latencies.computeIfAbsent(routeId, id -> {
+            RouteLatency created = new RouteLatency();
+            meterRegistry.gauge("gateway.shedding.latency.ewma", Tags.of("route", id), created,
+                    l -> Double.longBitsToDouble(l.ewmaNanos.get()) / 1_000_000);
+            return created;
+        });
+
+        Priority priority = priorityOf(exchange);
+        if (latency.overloaded(priority) && !latency.tryProbe()) {
+            meterRegistry.counter("gateway.shedding.rejected", "route", routeId,
+                    "priority", priority.name()).increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set("Retry-After", "1");
+            return response.setComplete();
+        }
+
+        // Time to response headers, so long streamed bodies do not count as a slow service
+        long start = System.nanoTime();
+        exchange.getResponse().beforeCommit(() -> {
+            latency.record(System.nanoTime() - start);
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
+
+    private Priority priorityOf(ServerWebExchange exchange) {
+        for (PathPattern critical : criticalPaths) {
+            if (critical.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return Priority.CRITICAL;
+            }
+        }
+        return HttpMethod.GET.equals(exchange.getRequest().getMethod()) ? Priority.LOW : Priority.NORMAL;
+    }
+
+    // Last of the gateway's own filters, so cache hits are served even while a route sheds
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+
+    private class RouteLatency {
+
+        // Double bits, updated with CAS so concurrent completions never lose a sample
+        private final AtomicLong ewmaNanos = new AtomicLong(Double.doubleToLongBits(0));
+        private final AtomicLong lastProbe = new AtomicLong(System.nanoTime());
+
+        boolean overloaded(Priority priority) {
+            double ewma = Double.longBitsToDouble(ewmaNanos.get());
+            return switch (priority) {
+                case CRITICAL -> false;
+                case NORMAL -> ewma > thresholdNanos * normalMultiplier;
+                case LOW -> ewma > thresholdNanos;
+            };
+        }
+
+        boolean tryProbe() {
+            long now = System.nanoTime();
+            long last = lastProbe.get();
+            return now - last >= probeIntervalNanos && lastProbe.compareAndSet(last, now);
+        }
+
+        void record(long nanos) {
+            while (true) {
+                long current = ewmaNanos.get();
+                double ewma = Double.longBitsToDouble(current);
+                double next = ewma == 0 ? nanos : ewma + alpha * (nanos - ewma);
+                if (ewmaNanos.compareAndSet(current, Double.doubleToLongBits(next))) {
+                    return;
+                }
+            }
+        }
+    }
+}
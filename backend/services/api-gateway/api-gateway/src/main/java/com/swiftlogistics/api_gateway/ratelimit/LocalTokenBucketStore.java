@@ -0,0 +1,63 @@
+package com.swiftlogistics.api_gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-instance buckets, lock-free: each key is one AtomicLong holding the bucket's
+ * theoretical arrival time, updated with a CAS loop. With several gateway instances each
+ * one enforces the limit separately; use {@link RedisTokenBucketStore} to share them.
+ */
+public class LocalTokenBucketStore implements TokenBucketStore {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long origin = System.nanoTime();
+    private final int maxKeys;
+
+    public LocalTokenBucketStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public Mono<Long> tryConsume(String key, BucketLimit limit) {
+        return Mono.just(consume(key, limit));
+    }
+
+    public long consume(String key, BucketLimit limit) {
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            if (buckets.size() >= maxKeys) {
+                evict();
+            }
+            arrival = buckets.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        long interval = limit.intervalNanos();
+        long capacity = limit.burst() * interval;
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - capacity;
+            if (excess > 0) {
+                return excess;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Full buckets carry no state worth keeping; if that is not enough, drop arbitrary ones
+    private void evict() {
+        long now = System.nanoTime() - origin;
+        buckets.values().removeIf(arrival -> arrival.get() <= now);
+        Iterator<String> keys = buckets.keySet().iterator();
+        while (buckets.size() > maxKeys * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.swiftlogistics.api_gateway.ratelimit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * One bucket per caller for requests matching {@code method} (null for any) and
+ * {@code path}. The caller is the verified user when there is one, else the client address.
+ */
+public record RateLimitRule(String id, HttpMethod method, PathPattern path, BucketLimit limit) {
+
+    public static RateLimitRule of(String id, HttpMethod method, String path, double perSecond, int burst) {
+        return new RateLimitRule(id, method, PathPatternParser.defaultInstance.parse(path),
+                new BucketLimit(perSecond, burst));
+    }
+
+    public boolean matches(ServerHttpRequest request) {
+        return (method == null || method.equals(request.getMethod()))
+                && path.matches(request.getPath().pathWithinApplication());
+    }
+}
@@ -0,0 +1,55 @@
+package com.swiftlogistics.api_gateway.ratelimit;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buckets shared by every gateway instance. The same GCRA step as
+ * {@link LocalTokenBucketStore} runs as one Lua script, timed by the Redis clock so
+ * instances never disagree about "now". If Redis cannot be reached the instance falls
+ * back to its local buckets rather than letting everything through or failing requests.
+ */
+public class RedisTokenBucketStore implements TokenBucketStore {
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    // KEYS[1] bucket; ARGV[1] refill interval and ARGV[2] burst, in microseconds and tokens
+    private static final RedisScript<Long> CONSUME = RedisScript.of("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2]) * interval
+            local arrival = math.max(tonumber(redis.call('GET', KEYS[1]) or '0'), now) + interval
+            local excess = arrival - now - capacity
+            if excess > 0 then
+                return excess
+            end
+            redis.call('SET', KEYS[1], string.format('%d', arrival), 'PX', math.ceil((arrival - now) / 1000) + 1000)
+            return 0
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final LocalTokenBucketStore fallback;
+
+    public RedisTokenBucketStore(ReactiveStringRedisTemplate redisTemplate, LocalTokenBucketStore fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Mono<Long> tryConsume(String key, BucketLimit limit) {
+        long intervalMicros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(limit.intervalNanos()));
+        return redisTemplate.execute(CONSUME, List.of(KEY_PREFIX + key),
+                        List.of(Long.toString(intervalMicros), Integer.toString(limit.burst())))
+                .next()
+                .map(TimeUnit.MICROSECONDS::toNanos)
+                .onErrorResume(e -> {
+                    System.out.println("⚠️ Rate limit store unavailable, using local buckets: " + e.getMessage());
+                    return fallback.tryConsume(key, limit);
+                });
+    }
+}
@@ -0,0 +1,14 @@
+package com.swiftlogistics.api_gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds the token buckets. Implementations track, per key, the time at which the bucket
+ * will be full again (GCRA, the token bucket expressed as a single timestamp), so taking a
+ * token is one compare-and-set locally or one script call against a shared store.
+ */
+public interface TokenBucketStore {
+
+    /** Takes one token; emits 0 if one was available, otherwise the nanos until there will be. */
+    Mono<Long> tryConsume(String key, BucketLimit limit);
+}
@@ -0,0 +1,76 @@
+package com.swiftlogistics.api_gateway.security;
+
+import com.swiftlogistics.common.security.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies the bearer token once at the edge. A request with a bad or expired token is
+ * answered 401 here instead of costing a hop; a good one is forwarded with the caller's
+ * id in X-User-Id plus the shared X-Gateway-Secret, which order-service and
+ * product-service trust in place of re-verifying the token. Both headers are always
+ * stripped from the incoming request so a client cannot set them itself, as is the
+ * X-Service-Token that guards product-service's internal stock endpoints.
+ * Requests without a token pass through untouched; the routes stay permitAll.
+ */
+@Component
+public class JwtIdentityFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String GATEWAY_SECRET_HEADER = "X-Gateway-Secret";
+    // Internal service credential for product-service's stock endpoints; never accepted from outside
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+    // Exchange attribute holding the verified userId for the gateway's own filters
+    public static final String USER_ID_ATTRIBUTE = JwtIdentityFilter.class.getName() + ".userId";
+
+    private final JwtUtil jwtUtil;
+    private final String gatewaySecret;
+
+    public JwtIdentityFilter(JwtUtil jwtUtil,
+                             @Value("${gateway.identity.secret:}") String gatewaySecret) {
+        this.jwtUtil = jwtUtil;
+        this.gatewaySecret = gatewaySecret;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        String userId = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            userId = jwtUtil.verifiedUserId(authHeader.substring(7));
+            if (userId == null) {
+                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                return exchange.getResponse().setComplete();
+            }
+            exchange.getAttributes().put(USER_ID_ATTRIBUTE, userId);
+        }
+
+        String verifiedUserId = userId;
+        ServerHttpRequest forwarded = request.mutate().headers(headers -> {
+            headers.remove(USER_ID_HEADER);
+            headers.remove(GATEWAY_SECRET_HEADER);
+            headers.remove(SERVICE_TOKEN_HEADER);
+            if (verifiedUserId != null && !gatewaySecret.isEmpty()) {
+                headers.set(USER_ID_HEADER, verifiedUserId);
+                headers.set(GATEWAY_SECRET_HEADER, gatewaySecret);
+            }
+        }).build();
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    // Before routing and every other filter, so nothing downstream sees an unverified identity
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
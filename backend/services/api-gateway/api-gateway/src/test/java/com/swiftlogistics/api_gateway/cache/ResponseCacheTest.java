@@ -0,0 +1,91 @@
+package com.swiftlogistics.api_gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A response fetched before a product changed must never be served after the change,
+ * however the store and the invalidation interleave.
+ */
+class ResponseCacheTest {
+
+    private static final String ITEM = "/api/product/id/7";
+    private static final String LISTING = "/api/product/category/Lamps";
+
+    @Test
+    void putAfterInvalidationIsDropped() {
+        ResponseCache cache = new ResponseCache(100);
+        long fetchGeneration = cache.generation();
+        cache.invalidateProduct(7);
+
+        cache.put(ITEM, response("old"), fetchGeneration);
+        assertNull(cache.get(ITEM));
+
+        cache.put(ITEM, response("new"), cache.generation());
+        assertEquals("new", body(cache.get(ITEM)));
+    }
+
+    @Test
+    void putRacingInvalidationNeverKeepsTheStaleResponse() throws Exception {
+        ResponseCache cache = new ResponseCache(100);
+        CyclicBarrier start = new CyclicBarrier(2);
+        try (ExecutorService threads = Executors.newFixedThreadPool(2)) {
+            for (int i = 0; i < 50_000; i++) {
+                // Both responses were read before the product changed
+                long fetchGeneration = cache.generation();
+                Future<?> store = threads.submit(() -> {
+                    start.await();
+                    cache.put(ITEM, response("stale"), fetchGeneration);
+                    cache.put(LISTING, response("stale"), fetchGeneration);
+                    return null;
+                });
+                Future<?> invalidate = threads.submit(() -> {
+                    start.await();
+                    cache.invalidateProduct(7);
+                    return null;
+                });
+                store.get();
+                invalidate.get();
+
+                assertNull(cache.get(ITEM), "item kept after invalidation, round " + i);
+                assertNull(cache.get(LISTING), "listing kept after invalidation, round " + i);
+            }
+        }
+    }
+
+    @Test
+    void invalidationDropsTheItemAndListingsOnly() {
+        ResponseCache cache = new ResponseCache(100);
+        long generation = cache.generation();
+        cache.put(ITEM, response("7"), generation);
+        cache.put(ITEM + "?fields=name", response("7"), generation);
+        cache.put("/api/product/id/70", response("70"), generation);
+        cache.put(LISTING, response("listing"), generation);
+
+        cache.invalidateProduct(7);
+
+        assertNull(cache.get(ITEM));
+        assertNull(cache.get(ITEM + "?fields=name"));
+        assertNull(cache.get(LISTING));
+        // Put before the invalidation, but a different product's item stays
+        assertEquals("70", body(cache.get("/api/product/id/70")));
+    }
+
+    private static ResponseCache.CachedResponse response(String body) {
+        return new ResponseCache.CachedResponse(HttpStatus.OK, new HttpHeaders(),
+                body.getBytes(StandardCharsets.UTF_8), Long.MAX_VALUE);
+    }
+
+    private static String body(ResponseCache.CachedResponse response) {
+        return response == null ? null : new String(response.body(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,9 @@
 package com.swiftlogistics.auth.config;
 
+import com.swiftlogistics.auth.service.PasswordHasher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,9 +22,11 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // The encoder, and its auth.bcrypt.strength, come from PasswordHasher. Raising the
+    // strength takes effect for existing users on their next login (see AuthService)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHasher passwordHasher) {
+        return passwordHasher.getPasswordEncoder();
     }
 
     @Bean
@@ -5,9 +5,14 @@ import com.swiftlogistics.auth.dto.AuthResponse;
 import com.swiftlogistics.auth.dto.RegisterRequest;
 import com.swiftlogistics.auth.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -17,7 +22,7 @@ public class AuthController {
 
     @PostMapping("/register")
 
-    public ResponseEntity<AuthResponse> register(
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(
             @RequestBody RegisterRequest request,
             @RequestHeader(value = "X-Client-Source", required = false) String clientSource) {
 
@@ -25,14 +30,25 @@ public class AuthController {
             clientSource = "web";
         }
 
-        AuthResponse response = authService.register(request, clientSource);
-        return ResponseEntity.ok(response);
+        return authService.register(request, clientSource).thenApply(ResponseEntity::ok);
 
     }
 
     @PostMapping("/login")
-    public AuthResponse login(@RequestBody AuthRequest request) {
+    public CompletableFuture<AuthResponse> login(@RequestBody AuthRequest request) {
 
         return authService.authenticate(request);
     }
+
+    // The hashing pool is saturated; tell the client to back off rather than queue it
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> hashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").build();
+    }
+
+    // Unknown email or wrong password; MVC hands over the cause of a failed CompletableFuture
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<Void> badCredentials() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
 }
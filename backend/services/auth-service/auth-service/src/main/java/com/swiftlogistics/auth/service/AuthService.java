@@ -6,45 +6,85 @@ import com.swiftlogistics.auth.dto.RegisterRequest;
 import com.swiftlogistics.auth.model.User;
 import com.swiftlogistics.auth.model.Role;
 import com.swiftlogistics.auth.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
+    // Database writes after a hash run here, keeping the hashing threads for hashing
+    private final ExecutorService databaseExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public AuthResponse register(RegisterRequest request, String clientSource) {
-        User user = new User();
-        user.setName(request.getName());
-        user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
-        user.setPhone(request.getPhone());
-        user.setAddress(request.getAddress());
-        if ("mobile".equalsIgnoreCase(clientSource)) {
-            user.setRole(Role.DRIVER);
-        } else {
-            user.setRole(request.getRole());
-        }
+    public CompletableFuture<AuthResponse> register(RegisterRequest request, String clientSource) {
+        return passwordHasher.encode(request.getPassword()).thenApplyAsync(hash -> {
+            User user = new User();
+            user.setName(request.getName());
+            user.setEmail(request.getEmail());
+            user.setPasswordHash(hash);
+            user.setPhone(request.getPhone());
+            user.setAddress(request.getAddress());
+            if ("mobile".equalsIgnoreCase(clientSource)) {
+                user.setRole(Role.DRIVER);
+            } else {
+                user.setRole(request.getRole());
+            }
 
-        userRepository.save(user);
-        String token = jwtService.generateToken(user.getUserId());
-        return new AuthResponse(token, user.getRole().name(),user.getUserId());
+            userRepository.save(user);
+            String token = jwtService.generateToken(user.getUserId());
+            return new AuthResponse(token, user.getRole().name(),user.getUserId());
+        }, databaseExecutor);
     }
 
-    public AuthResponse authenticate(AuthRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+    public CompletableFuture<AuthResponse> authenticate(AuthRequest request) {
+        Optional<User> found = userRepository.findByEmail(request.getEmail());
+        // An unknown email is still checked against a hash, so it takes as long as a wrong password
+        String hash = found.map(User::getPasswordHash).orElse(passwordHasher.getDummyHash());
+
+        return passwordHasher.matches(request.getPassword(), hash).thenApply(matches -> {
+            if (!matches || found.isEmpty()) {
+                throw new BadCredentialsException("Invalid email or password");
+            }
+            User user = found.get();
+            if (passwordHasher.needsRehash(user.getPasswordHash())) {
+                rehash(user, request.getPassword());
+            }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            throw new RuntimeException("Invalid email or password");
+            String token = jwtService.generateToken(user.getUserId());
+            return new AuthResponse(token, user.getRole().name(),user.getUserId());
+        });
+    }
+
+    // Moves the stored hash to the configured work factor in the background; the login
+    // itself never waits for it, and a full pool just leaves it for the next login
+    private void rehash(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAcceptAsync(newHash -> userRepository.updatePasswordHash(user.getUserId(), oldHash, newHash),
+                            databaseExecutor)
+                    .exceptionally(e -> {
+                        System.out.println("⚠️ Rehash failed for user " + user.getUserId() + ": " + e.getMessage());
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            System.out.println("⏳ Hashing pool full, rehash of user " + user.getUserId() + " deferred");
         }
+    }
 
-        String token = jwtService.generateToken(user.getUserId());
-        return new AuthResponse(token, user.getRole().name(),user.getUserId());
+    @PreDestroy
+    public void shutdown() {
+        databaseExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
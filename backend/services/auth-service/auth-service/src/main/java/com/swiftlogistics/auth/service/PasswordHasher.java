@@ -0,0 +1,86 @@
+package com.swiftlogistics.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small fixed pool so a burst of logins can only ever occupy
+ * {@code threads} cores and never the request threads. Work beyond the bounded queue is
+ * refused at once with a {@link RejectedExecutionException} (answered 503) instead of
+ * waiting, which keeps the worst-case wait at roughly queueCapacity / threads hashes.
+ * This is the one place {@code auth.bcrypt.strength} is read; the PasswordEncoder bean
+ * in SecurityConfig is this hasher's encoder.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    // Hash of a random password at the configured strength, so an unknown email costs a login
+    // the same BCrypt work as a wrong password
+    private final String dummyHash;
+    private final ThreadPoolExecutor pool;
+
+    public PasswordHasher(@Value("${auth.bcrypt.strength:10}") int strength,
+                          @Value("${auth.hashing.threads:0}") int threads,
+                          @Value("${auth.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public PasswordEncoder getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    public String getDummyHash() {
+        return dummyHash;
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), pool);
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String hash) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.matches(rawPassword, hash), pool);
+    }
+
+    // True when the hash was made with a different work factor than the configured one,
+    // in either direction; hashes that are not BCrypt ($2a$10$...) are left alone
+    public boolean needsRehash(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,131 @@
+package com.swiftlogistics.auth.controller;
+
+import com.swiftlogistics.auth.config.SecurityConfig;
+import com.swiftlogistics.auth.model.Role;
+import com.swiftlogistics.auth.model.User;
+import com.swiftlogistics.auth.repository.UserRepository;
+import com.swiftlogistics.auth.service.AuthService;
+import com.swiftlogistics.auth.service.JwtService;
+import com.swiftlogistics.auth.service.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, AuthService.class, PasswordHasher.class})
+@TestPropertySource(properties = {
+        "auth.bcrypt.strength=4",
+        "auth.hashing.threads=1",
+        "auth.hashing.queue-capacity=1"
+})
+class AuthControllerTest {
+
+    // A well-formed BCrypt hash at cost 13: checking anything against it keeps a hashing thread busy
+    private static final String SLOW_HASH = "$2a$13$abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUserId(7L);
+        user.setEmail("driver@example.com");
+        user.setPasswordHash(passwordHasher.getPasswordEncoder().encode("right"));
+        user.setRole(Role.DRIVER);
+        when(userRepository.findByEmail("driver@example.com")).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(any())).thenReturn("token");
+    }
+
+    @Test
+    void correctPasswordLogsIn() throws Exception {
+        MvcResult result = mockMvc.perform(login("driver@example.com", "right"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("token"))
+                .andExpect(jsonPath("$.userId").value(7));
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+        // Rejected inside the hashing future, after the request thread was released
+        MvcResult result = mockMvc.perform(login("driver@example.com", "wrong"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void unknownEmailIsUnauthorized() throws Exception {
+        // Checked against the dummy hash like a wrong password, so it is rejected just as late
+        MvcResult result = mockMvc.perform(login("nobody@example.com", "right"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void saturatedHasherAnswers503WithRetryAfter() throws Exception {
+        // One hash running on the only thread, one waiting in the only queue slot
+        List<CompletableFuture<Boolean>> busy = new ArrayList<>();
+        try {
+            busy.add(passwordHasher.matches("x", SLOW_HASH));
+            // Let the thread pick it up, so the queue slot is free for the second
+            Thread.sleep(100);
+            busy.add(passwordHasher.matches("x", SLOW_HASH));
+            assertThrows(RejectedExecutionException.class, () -> passwordHasher.matches("x", SLOW_HASH));
+
+            mockMvc.perform(login("driver@example.com", "right"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+            mockMvc.perform(post("/api/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"New\",\"email\":\"new@example.com\",\"password\":\"secret\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            // Leave the pool idle for the other tests
+            CompletableFuture.allOf(busy.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    private static MockHttpServletRequestBuilder login(String email, String password) {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+}
@@ -0,0 +1,163 @@
+package com.swiftlogistics.common.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-instance load seen by this process, fed by the load balancer's request lifecycle:
+ * requests in flight, a peak EWMA of latency and consecutive failures. The latency jumps
+ * straight to any slower sample (a GC pause shows up at once) and otherwise decays with
+ * {@code decayMs}, also while the instance gets no traffic, so it is tried again later.
+ *
+ * An instance that fails {@code ejectAfterFailures} requests in a row (exceptions or 5xx)
+ * is ejected for {@code baseEjectionMs}, doubling on each repeat up to {@code maxEjectionMs}.
+ */
+public class InstanceStats implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    // Cost of an instance that has requests in flight but no latency sample yet
+    private static final double UNMEASURED_PENALTY = Double.MAX_VALUE / 2;
+
+    private final ConcurrentHashMap<String, Instance> instances = new ConcurrentHashMap<>();
+    private final long decayNanos;
+    private final int ejectAfterFailures;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+
+    public InstanceStats(long decayMs, int ejectAfterFailures, long baseEjectionMs, long maxEjectionMs) {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMs);
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.baseEjectionNanos = TimeUnit.MILLISECONDS.toNanos(baseEjectionMs);
+        this.maxEjectionNanos = TimeUnit.MILLISECONDS.toNanos(maxEjectionMs);
+    }
+
+    // Lower is better: expected latency scaled by the queue of requests already sent there
+    public double cost(ServiceInstance instance) {
+        Instance stats = instances.get(keyOf(instance));
+        return stats == null ? 0 : stats.cost(System.nanoTime());
+    }
+
+    public boolean isEjected(ServiceInstance instance) {
+        Instance stats = instances.get(keyOf(instance));
+        return stats != null && stats.ejectedAt(System.nanoTime());
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        instances.computeIfAbsent(keyOf(lbResponse.getServer()), key -> new Instance()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        Instance stats = instances.get(keyOf(lbResponse.getServer()));
+        if (stats == null) {
+            return;
+        }
+        stats.inFlight.decrementAndGet();
+
+        long now = System.nanoTime();
+        Object context = completionContext.getLoadBalancerRequest() == null
+                ? null : completionContext.getLoadBalancerRequest().getContext();
+        long latency = context instanceof TimedRequestContext timed && timed.getRequestStartTime() > 0
+                ? now - timed.getRequestStartTime() : -1;
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || isServerError(completionContext.getClientResponse());
+        stats.complete(now, latency, failed);
+    }
+
+    private static boolean isServerError(Object clientResponse) {
+        if (clientResponse instanceof ResponseData data) {
+            return data.getHttpStatus() != null && data.getHttpStatus().is5xxServerError();
+        }
+        if (clientResponse instanceof ClientHttpResponse response) {
+            try {
+                return response.getStatusCode().is5xxServerError();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String keyOf(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private class Instance {
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean ejected;
+        private volatile long ejectedUntil;
+
+        private double latencyNanos;
+        private long lastUpdate = System.nanoTime();
+        private int consecutiveFailures;
+        private int ejections;
+
+        boolean ejectedAt(long now) {
+            return ejected && ejectedUntil - now > 0;
+        }
+
+        synchronized double cost(long now) {
+            int pending = inFlight.get();
+            double latency = latencyNanos * Math.exp(-(double) (now - lastUpdate) / decayNanos);
+            if (latencyNanos == 0 && pending > 0) {
+                return UNMEASURED_PENALTY;
+            }
+            return latency * (pending + 1);
+        }
+
+        synchronized void complete(long now, long sampleNanos, boolean failed) {
+            if (sampleNanos >= 0) {
+                double weight = Math.exp(-(double) (now - lastUpdate) / decayNanos);
+                latencyNanos = sampleNanos > latencyNanos
+                        ? sampleNanos : latencyNanos * weight + sampleNanos * (1 - weight);
+                lastUpdate = now;
+            }
+            if (!failed) {
+                consecutiveFailures = 0;
+                if (!ejectedAt(now)) {
+                    ejections = 0;
+                }
+                return;
+            }
+            if (++consecutiveFailures >= ejectAfterFailures && !ejectedAt(now)) {
+                long ejection = Math.min(maxEjectionNanos, baseEjectionNanos << Math.min(ejections, 20));
+                ejectedUntil = now + ejection;
+                ejected = true;
+                ejections++;
+                consecutiveFailures = 0;
+            }
+        }
+    }
+}
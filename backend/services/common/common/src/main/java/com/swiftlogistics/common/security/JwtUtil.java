@@ -0,0 +1,63 @@
+package com.swiftlogistics.common.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+
+/**
+ * Verifies the HMAC-signed tokens issued by auth-service. Every service that checks a
+ * token builds one from its {@code jwt.secret} and {@code jwt.cache.*} properties, so the
+ * key, the parser and the {@link VerifiedTokenCache} in front of it behave the same
+ * everywhere.
+ */
+public class JwtUtil {
+
+    // Immutable and thread-safe, so one parser serves every request
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
+
+    public JwtUtil(String secret, int cacheMaxSize, long cacheTtlMs) {
+        Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = new VerifiedTokenCache(cacheMaxSize, cacheTtlMs);
+    }
+
+    public Claims extractClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    public boolean validateToken(String token) {
+        return verifiedUserId(token) != null;
+    }
+
+    public String extractUserId(String token) {
+        return extractClaims(token).getSubject();
+    }
+
+    // userId (subject) of a valid token, or null. The signature is checked once per token;
+    // later calls with the same token are answered from the cache until it expires.
+    public String verifiedUserId(String token) {
+        String cacheKey = VerifiedTokenCache.keyOf(token);
+        String userId = verifiedTokens.get(cacheKey);
+        if (userId != null) {
+            return userId;
+        }
+        try {
+            Claims claims = extractClaims(token);
+            userId = claims.getSubject();
+            if (userId == null) {
+                return null;
+            }
+            Date expiration = claims.getExpiration();
+            verifiedTokens.put(cacheKey, userId, expiration == null ? Long.MAX_VALUE : expiration.getTime());
+            return userId;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
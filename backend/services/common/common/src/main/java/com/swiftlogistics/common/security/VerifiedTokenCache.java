@@ -0,0 +1,71 @@
+package com.swiftlogistics.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens that already passed signature and expiry checks, keyed by the SHA-256 of the
+ * token, so a repeat caller costs one hash and a map lookup instead of an HMAC and two
+ * JSON parses. An entry never outlives the token's exp (nor ttlMs), and the map holds
+ * at most maxSize tokens. Only valid tokens are ever stored.
+ */
+public class VerifiedTokenCache {
+
+    private record Entry(String userId, long expiresAt) {}
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMs;
+
+    public VerifiedTokenCache(int maxSize, long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    // userId of a cached, still unexpired token, or null
+    public String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.userId();
+    }
+
+    public void put(String key, String userId, long tokenExpiresAt) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, new Entry(userId, Math.min(tokenExpiresAt, System.currentTimeMillis() + ttlMs)));
+    }
+
+    // Drops expired tokens first, then arbitrary ones until there is a tenth of the room free
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now >= entry.expiresAt());
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxSize * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.swiftlogistics.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final int ROUNDS = 200;
+
+    private final ServiceInstance a = instance("a", 8001);
+    private final ServiceInstance b = instance("b", 8002);
+    private final ServiceInstance c = instance("c", 8003);
+    private final InstanceStats stats = mock(InstanceStats.class);
+    private final LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, stats);
+
+    @Test
+    void skipsEjectedInstances() {
+        when(stats.isEjected(a)).thenReturn(true);
+        when(stats.isEjected(c)).thenReturn(true);
+        // Even though b looks the most expensive
+        when(stats.cost(b)).thenReturn(1e9);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertSame(b, chosen(List.of(a, b, c)));
+        }
+    }
+
+    @Test
+    void fallsBackToAllInstancesWhenEveryOneIsEjected() {
+        when(stats.isEjected(a)).thenReturn(true);
+        when(stats.isEjected(b)).thenReturn(true);
+        when(stats.isEjected(c)).thenReturn(true);
+
+        Set<ServiceInstance> seen = new HashSet<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            seen.add(chosen(List.of(a, b, c)));
+        }
+        assertEquals(Set.of(a, b, c), seen);
+    }
+
+    @Test
+    void prefersTheCheaperOfTwo() {
+        when(stats.cost(a)).thenReturn(50.0);
+        when(stats.cost(b)).thenReturn(5.0);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertSame(b, chosen(List.of(a, b)));
+        }
+    }
+
+    @Test
+    void neverPicksTheMostExpensiveOfThree() {
+        when(stats.cost(a)).thenReturn(1.0);
+        when(stats.cost(b)).thenReturn(2.0);
+        when(stats.cost(c)).thenReturn(3.0);
+
+        // Two distinct random candidates, the cheaper wins: c can never win, a wins 2 of 3 pairs
+        Set<ServiceInstance> seen = new HashSet<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            seen.add(chosen(List.of(a, b, c)));
+        }
+        assertEquals(Set.of(a, b), seen);
+    }
+
+    @Test
+    void emptyListHasNoServer() {
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+
+    private ServiceInstance chosen(List<ServiceInstance> instances) {
+        Response<ServiceInstance> response = loadBalancer.choose(instances);
+        assertTrue(response.hasServer());
+        return response.getServer();
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "product-service", "localhost", port, false);
+    }
+}
@@ -0,0 +1,66 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent calls into one downstream adapter so a slow integration
+ * cannot take threads away from the others. Calls run on virtual threads;
+ * if no permit frees up within the acquire timeout the call is rejected.
+ * Cancelling a submitted call interrupts it.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public Bulkhead(String name, int maxConcurrent, long acquireTimeoutMs) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    // Cancelling the returned future interrupts the call, so a caller that gives up does not
+    // leave it running against the downstream
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    result.completeExceptionally(new RejectedExecutionException("Bulkhead '" + name + "' is full"));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                result.complete(call.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
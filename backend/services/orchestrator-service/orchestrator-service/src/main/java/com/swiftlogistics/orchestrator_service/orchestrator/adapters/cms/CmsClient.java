@@ -0,0 +1,212 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SOAP client for the CMS service described by cms.wsdl. Envelopes are written and
+ * read with StAX straight to/from the HTTP body (no DOM or JAXB binding), and a single
+ * HttpClient keeps connections alive between calls. getClientInfo results are cached
+ * per clientId for {@code cms.client-info-ttl-ms}.
+ */
+@Component
+public class CmsClient {
+
+    private static final String SOAP_ENV_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String CMS_NS = "http://example.com/cms";
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private record CachedClientInfo(CmsClientInfo info, long expiresAt) {}
+
+    private final URI endpoint;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final long clientInfoTtlNanos;
+    private final int clientInfoCacheSize;
+    private final Map<String, CachedClientInfo> clientInfoCache = new ConcurrentHashMap<>();
+
+    private final Timer createOrderLatency;
+    private final Timer clientInfoLatency;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public CmsClient(@Value("${cms.url:http://localhost:3001/cms}") String url,
+                     @Value("${cms.connect-timeout-ms:1000}") long connectTimeoutMs,
+                     @Value("${cms.request-timeout-ms:5000}") long requestTimeoutMs,
+                     @Value("${cms.client-info-ttl-ms:300000}") long clientInfoTtlMs,
+                     @Value("${cms.client-info-cache-size:10000}") int clientInfoCacheSize,
+                     MeterRegistry meterRegistry) {
+        this.endpoint = URI.create(url);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.clientInfoTtlNanos = TimeUnit.MILLISECONDS.toNanos(clientInfoTtlMs);
+        this.clientInfoCacheSize = clientInfoCacheSize;
+
+        this.createOrderLatency = Timer.builder("cms.call.latency").tag("operation", "createOrder")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.clientInfoLatency = Timer.builder("cms.call.latency").tag("operation", "getClientInfo")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.cacheHits = meterRegistry.counter("cms.client-info.cache", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("cms.client-info.cache", "result", "miss");
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Never resolve DTDs or external entities from a remote response
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    public CmsOrderResponse createOrder(String clientId, String orderDetails) {
+        Map<String, String> result = createOrderLatency.record(() -> call("createOrder",
+                new String[]{"clientId", clientId, "orderDetails", orderDetails},
+                "status", "orderId"));
+        String orderId = result.get("orderId");
+        return new CmsOrderResponse(result.get("status"), orderId == null ? null : Integer.valueOf(orderId));
+    }
+
+    public CmsClientInfo getClientInfo(String clientId) {
+        long now = System.nanoTime();
+        CachedClientInfo cached = clientInfoCache.get(clientId);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            cacheHits.increment();
+            return cached.info();
+        }
+        cacheMisses.increment();
+
+        Map<String, String> result = clientInfoLatency.record(() -> call("getClientInfo",
+                new String[]{"clientId", clientId},
+                "clientName", "clientId"));
+        CmsClientInfo info = new CmsClientInfo(result.get("clientName"), result.get("clientId"));
+
+        if (clientInfoCache.size() >= clientInfoCacheSize) {
+            evictFromClientInfoCache(now);
+        }
+        clientInfoCache.put(clientId, new CachedClientInfo(info, now + clientInfoTtlNanos));
+        return info;
+    }
+
+    // Drops expired entries; if the cache is still full, drops arbitrary entries to stay bounded
+    private void evictFromClientInfoCache(long now) {
+        clientInfoCache.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        Iterator<String> keys = clientInfoCache.keySet().iterator();
+        while (clientInfoCache.size() >= clientInfoCacheSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Sends one document/literal request and returns the text of the requested
+     * response elements, matched by local name.
+     */
+    private Map<String, String> call(String operation, String[] params, String... responseFields) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", operation)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writeEnvelope(operation, params)))
+                .build();
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new CmsException("CMS " + operation + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmsException("CMS " + operation + " interrupted", e);
+        }
+
+        try (InputStream body = response.body()) {
+            Map<String, String> values = readResponse(body, responseFields);
+            if (values.containsKey("faultstring")) {
+                throw new CmsException("CMS " + operation + " fault: " + values.get("faultstring"));
+            }
+            if (response.statusCode() >= 300) {
+                throw new CmsException("CMS " + operation + " returned HTTP " + response.statusCode());
+            }
+            return values;
+        } catch (IOException | XMLStreamException e) {
+            throw new CmsException("Could not read CMS " + operation + " response", e);
+        }
+    }
+
+    private byte[] writeEnvelope(String operation, String[] params) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("soapenv", "Envelope", SOAP_ENV_NS);
+            writer.writeNamespace("soapenv", SOAP_ENV_NS);
+            writer.writeNamespace("tns", CMS_NS);
+            writer.writeStartElement("soapenv", "Body", SOAP_ENV_NS);
+            writer.writeStartElement("tns", operation, CMS_NS);
+            for (int i = 0; i < params.length; i += 2) {
+                writer.writeStartElement(params[i]);
+                writer.writeCharacters(params[i + 1] == null ? "" : params[i + 1]);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new CmsException("Could not write CMS " + operation + " request", e);
+        }
+        return out.toByteArray();
+    }
+
+    private Map<String, String> readResponse(InputStream body, String[] fields) throws XMLStreamException {
+        Map<String, String> values = new HashMap<>();
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(body);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if ("faultstring".equals(name) || contains(fields, name)) {
+                    values.put(name, reader.getElementText());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return values;
+    }
+
+    private static boolean contains(String[] fields, String name) {
+        for (String field : fields) {
+            if (field.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,4 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms;
+
+public record CmsClientInfo(String clientName, String clientId) {
+}
@@ -0,0 +1,11 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms;
+
+public class CmsException extends RuntimeException {
+    public CmsException(String message) {
+        super(message);
+    }
+
+    public CmsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
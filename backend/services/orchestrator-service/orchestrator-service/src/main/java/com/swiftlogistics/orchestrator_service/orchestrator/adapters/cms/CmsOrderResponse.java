@@ -0,0 +1,4 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms;
+
+public record CmsOrderResponse(String status, Integer orderId) {
+}
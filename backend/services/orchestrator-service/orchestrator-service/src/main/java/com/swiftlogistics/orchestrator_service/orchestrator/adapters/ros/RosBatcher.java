@@ -0,0 +1,207 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.ros;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Groups route-optimization requests from concurrent orders into one ROS
+ * /optimizeRoute call. A batch is flushed when it reaches {@code ros.batch.max-size}
+ * orders or {@code ros.batch.max-delay-ms} after its first order, whichever comes
+ * first; each caller's future completes with its own stop from the returned route.
+ * At most {@code ros.batch.max-in-flight} batches are sent at once; while they are
+ * all out, new orders keep filling the next batch, which goes as soon as one returns.
+ */
+@Component
+public class RosBatcher {
+
+    private record PendingStop(Long orderId, String address, long enqueuedAt, CompletableFuture<RouteStop> result) {}
+
+    private record OptimizeRouteRequest(List<Map<String, Object>> orders, List<String> vehicles) {}
+
+    private record OptimizeRouteResponse(Integer routeId, List<RouteStop> route) {}
+
+    private final RestClient restClient;
+    private final int maxBatchSize;
+    private final long maxDelayMs;
+    private final long timeoutMs;
+    private final List<String> vehicles;
+    private final int maxInFlight;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            r -> Thread.ofPlatform().name("ros-batcher").daemon().unstarted(r));
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Guarded by this
+    private List<PendingStop> pending = new ArrayList<>();
+    private long generation;
+    private boolean due;
+    private int inFlight;
+
+    private final DistributionSummary batchSizes;
+    private final Timer queueDelay;
+    private final Timer callLatency;
+    private final Counter failedBatches;
+
+    public RosBatcher(RestClient.Builder restClientBuilder,
+                      @Value("${ros.url:http://localhost:3002}") String url,
+                      @Value("${ros.batch.max-size:20}") int maxBatchSize,
+                      @Value("${ros.batch.max-delay-ms:50}") long maxDelayMs,
+                      @Value("${ros.batch.max-in-flight:4}") int maxInFlight,
+                      @Value("${ros.connect-timeout-ms:1000}") long connectTimeoutMs,
+                      @Value("${ros.timeout-ms:5000}") long timeoutMs,
+                      @Value("${ros.vehicles:Van1}") List<String> vehicles,
+                      MeterRegistry meterRegistry) {
+        // The read timeout frees the sender of a hung call; orTimeout below only fails the callers
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = restClientBuilder.baseUrl(url).requestFactory(requestFactory).build();
+        this.maxInFlight = maxInFlight;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.timeoutMs = timeoutMs;
+        this.vehicles = vehicles;
+
+        this.batchSizes = DistributionSummary.builder("ros.batch.size")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.queueDelay = Timer.builder("ros.batch.queue.delay")
+                .description("Time an order waits in the batcher before its batch is sent")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.callLatency = Timer.builder("ros.call.latency")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.failedBatches = meterRegistry.counter("ros.batch.failures");
+    }
+
+    public CompletableFuture<RouteStop> optimizeRoute(Long orderId, String address) {
+        CompletableFuture<RouteStop> result = new CompletableFuture<>();
+        List<List<PendingStop>> ready;
+        synchronized (this) {
+            pending.add(new PendingStop(orderId, address, System.nanoTime(), result));
+            if (pending.size() == 1) {
+                long scheduledGeneration = generation;
+                timer.schedule(() -> flushIfStill(scheduledGeneration), maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+            ready = takeReadyBatches();
+        }
+        dispatch(ready);
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Called by the timer; skipped if that batch was already flushed because it filled up
+    private void flushIfStill(long scheduledGeneration) {
+        List<List<PendingStop>> ready;
+        synchronized (this) {
+            if (generation != scheduledGeneration || pending.isEmpty()) {
+                return;
+            }
+            due = true;
+            ready = takeReadyBatches();
+        }
+        dispatch(ready);
+    }
+
+    private void batchDone() {
+        List<List<PendingStop>> ready;
+        synchronized (this) {
+            inFlight--;
+            ready = takeReadyBatches();
+        }
+        dispatch(ready);
+    }
+
+    // Cuts full or overdue batches while a send slot is free. With every slot busy the
+    // pending batch keeps growing (up to max-size per send) until a slot frees up.
+    private List<List<PendingStop>> takeReadyBatches() {
+        List<List<PendingStop>> ready = new ArrayList<>();
+        while (inFlight < maxInFlight && !pending.isEmpty() && (due || pending.size() >= maxBatchSize)) {
+            int size = Math.min(maxBatchSize, pending.size());
+            ready.add(new ArrayList<>(pending.subList(0, size)));
+            pending = new ArrayList<>(pending.subList(size, pending.size()));
+            inFlight++;
+        }
+        // Leftovers keep their timer (or are already due); an empty batch starts over
+        if (!ready.isEmpty() && pending.isEmpty()) {
+            generation++;
+            due = false;
+        }
+        return ready;
+    }
+
+    private void dispatch(List<List<PendingStop>> batches) {
+        for (List<PendingStop> batch : batches) {
+            senders.execute(() -> send(batch));
+        }
+    }
+
+    private void send(List<PendingStop> batch) {
+        try {
+            // Skip the call when every caller already timed out while the batch waited
+            if (!batch.stream().allMatch(stop -> stop.result().isDone())) {
+                call(batch);
+            }
+        } finally {
+            batchDone();
+        }
+    }
+
+    private void call(List<PendingStop> batch) {
+        long now = System.nanoTime();
+        batchSizes.record(batch.size());
+        List<Map<String, Object>> orders = new ArrayList<>(batch.size());
+        for (PendingStop stop : batch) {
+            queueDelay.record(now - stop.enqueuedAt(), TimeUnit.NANOSECONDS);
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("orderId", stop.orderId());
+            order.put("address", stop.address());
+            orders.add(order);
+        }
+
+        try {
+            OptimizeRouteResponse response = callLatency.record(() -> restClient.post()
+                    .uri("/optimizeRoute")
+                    .body(new OptimizeRouteRequest(orders, vehicles))
+                    .retrieve()
+                    .body(OptimizeRouteResponse.class));
+
+            Map<Long, RouteStop> byOrderId = new HashMap<>();
+            if (response != null && response.route() != null) {
+                for (RouteStop stop : response.route()) {
+                    byOrderId.put(stop.orderId(), stop);
+                }
+            }
+            for (PendingStop stop : batch) {
+                RouteStop routed = byOrderId.get(stop.orderId());
+                if (routed != null) {
+                    stop.result().complete(routed);
+                } else {
+                    stop.result().completeExceptionally(new IllegalStateException("ROS returned no stop for order " + stop.orderId()));
+                }
+            }
+        } catch (Exception e) {
+            failedBatches.increment();
+            System.out.println("ROS batch of " + batch.size() + " failed: " + e.getMessage());
+            for (PendingStop stop : batch) {
+                stop.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        senders.shutdownNow();
+    }
+}
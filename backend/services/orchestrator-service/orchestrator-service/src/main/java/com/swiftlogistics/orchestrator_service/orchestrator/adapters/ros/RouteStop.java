@@ -0,0 +1,5 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.ros;
+
+// One entry of the ROS /optimizeRoute "route" array
+public record RouteStop(Long orderId, String address, String estimatedTime) {
+}
@@ -0,0 +1,76 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.stock;
+
+import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.CompensationHook;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.SagaStep;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Gives a failed order's stock back. The reservation was made at checkout and is released
+ * by the id carried in the event, whether order-service has committed it yet or not: the
+ * event can arrive before the commit, and a commit of a released reservation is refused.
+ * Releasing twice is a no-op, so retries are safe. Events from before the id was carried
+ * fall back to releasing whatever is committed to the order. product.url is a discovery
+ * service id, resolved per call by the load-balanced RestClient.
+ */
+@Component
+public class StockReleaseHook implements CompensationHook {
+
+    private final RestClient restClient;
+    private final String serviceSecret;
+
+    public StockReleaseHook(@LoadBalanced RestClient.Builder restClientBuilder,
+                            @Value("${product.url:http://product-service}") String url,
+                            @Value("${internal.service.secret:}") String serviceSecret,
+                            @Value("${product.connect-timeout-ms:1000}") long connectTimeoutMs,
+                            @Value("${product.request-timeout-ms:5000}") long requestTimeoutMs) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(requestTimeoutMs));
+        this.restClient = restClientBuilder.baseUrl(url).requestFactory(requestFactory).build();
+        this.serviceSecret = serviceSecret;
+    }
+
+    @Override
+    public SagaStep step() {
+        return SagaStep.STOCK;
+    }
+
+    @Override
+    public void compensate(OrderCreatedEvent event) {
+        if (event.getReservationId() != null) {
+            releaseReservation(event);
+            return;
+        }
+        Map<?, ?> response = restClient.post()
+                .uri("/api/product/stock/orders/{orderId}/release", event.getOrderId())
+                .header("X-Service-Token", serviceSecret)
+                .retrieve()
+                .body(Map.class);
+        System.out.println("Stock released for order " + event.getOrderId() + ": " + response);
+    }
+
+    private void releaseReservation(OrderCreatedEvent event) {
+        try {
+            Map<?, ?> response = restClient.post()
+                    .uri("/api/product/stock/reservations/{reservationId}/release", event.getReservationId())
+                    .header("X-Service-Token", serviceSecret)
+                    .retrieve()
+                    .body(Map.class);
+            System.out.println("Stock released for order " + event.getOrderId() + ": " + response);
+        } catch (HttpClientErrorException.NotFound e) {
+            System.out.println("No stock reservation " + event.getReservationId() + " for order "
+                    + event.getOrderId() + ", nothing to release");
+        }
+    }
+}
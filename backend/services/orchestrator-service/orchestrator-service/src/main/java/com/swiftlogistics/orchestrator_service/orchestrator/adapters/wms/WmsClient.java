@@ -0,0 +1,61 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.wms;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WMS TCP adapter: a small pool of persistent, pipelined connections.
+ * Each send goes to the connection with the fewest unacknowledged messages.
+ */
+@Component
+public class WmsClient {
+
+    private final List<WmsConnection> connections = new ArrayList<>();
+    private final AtomicLong correlationIds = new AtomicLong();
+    private final long ackTimeoutMs;
+
+    public WmsClient(@Value("${wms.host:localhost}") String host,
+                     @Value("${wms.port:3003}") int port,
+                     @Value("${wms.pool-size:2}") int poolSize,
+                     @Value("${wms.max-in-flight-per-connection:64}") int maxInFlight,
+                     @Value("${wms.connect-timeout-ms:1000}") int connectTimeoutMs,
+                     @Value("${wms.ack-timeout-ms:5000}") long ackTimeoutMs,
+                     @Value("${wms.reconnect.initial-backoff-ms:100}") long initialBackoffMs,
+                     @Value("${wms.reconnect.max-backoff-ms:5000}") long maxBackoffMs) {
+        this.ackTimeoutMs = ackTimeoutMs;
+        for (int i = 0; i < poolSize; i++) {
+            connections.add(new WmsConnection(new InetSocketAddress(host, port),
+                    connectTimeoutMs, maxInFlight, initialBackoffMs, maxBackoffMs));
+        }
+    }
+
+    // Completes with the WMS acknowledgement line
+    public CompletableFuture<String> sendOrder(Long orderId) {
+        return send("ORDER:" + orderId + ":RECEIVED");
+    }
+
+    public CompletableFuture<String> send(String message) {
+        if (message.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("WMS messages must be single-line");
+        }
+        WmsConnection target = connections.get(0);
+        for (WmsConnection connection : connections) {
+            if (connection.pendingCount() < target.pendingCount()) {
+                target = connection;
+            }
+        }
+        return target.send(message, correlationIds.incrementAndGet(), ackTimeoutMs);
+    }
+
+    @PreDestroy
+    public void close() {
+        connections.forEach(WmsConnection::close);
+    }
+}
@@ -0,0 +1,201 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.wms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One persistent, pipelined TCP connection to WMS. Messages are newline-framed and
+ * end with ":<correlationId>"; WMS echoes each line back as "ACK:<line>", which is
+ * matched to the waiting future by that id. A reader thread per socket completes
+ * futures as ACKs arrive, so many messages can be in flight on the same socket.
+ * After a failure the connection is re-opened lazily with exponential backoff.
+ *
+ * The channel is in blocking mode and there is no selector: senders write under a
+ * lock and the (virtual) reader thread blocks in read(). What saves the round trips
+ * is the pipelining, not non-blocking I/O.
+ */
+class WmsConnection {
+
+    private final InetSocketAddress address;
+    private final int connectTimeoutMs;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Semaphore inFlight;
+
+    private final Map<Long, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock connectLock = new ReentrantLock();
+    private final Object writeLock = new Object();
+
+    private volatile SocketChannel channel;
+    private long backoffMs;
+    private long nextAttemptAt;
+
+    WmsConnection(InetSocketAddress address, int connectTimeoutMs, int maxInFlight,
+                  long initialBackoffMs, long maxBackoffMs) {
+        this.address = address;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMs = initialBackoffMs;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    CompletableFuture<String> send(String message, long correlationId, long timeoutMs) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            if (!inFlight.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                result.completeExceptionally(new TimeoutException("WMS pipeline full"));
+                return result;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        pending.put(correlationId, result);
+        result.whenComplete((ack, error) -> {
+            pending.remove(correlationId);
+            inFlight.release();
+        });
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+
+        SocketChannel ch = null;
+        try {
+            ch = ensureConnected();
+            ByteBuffer frame = StandardCharsets.UTF_8.encode(message + ":" + correlationId + "\n");
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    ch.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            if (ch != null) {
+                fail(ch, e);
+            }
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private SocketChannel ensureConnected() throws IOException {
+        SocketChannel ch = channel;
+        if (ch != null && ch.isOpen()) {
+            return ch;
+        }
+
+        connectLock.lock();
+        try {
+            ch = channel;
+            if (ch != null && ch.isOpen()) {
+                return ch;
+            }
+            long now = System.currentTimeMillis();
+            if (now < nextAttemptAt) {
+                throw new IOException("WMS reconnect backing off for " + (nextAttemptAt - now) + "ms");
+            }
+            try {
+                ch = SocketChannel.open();
+                ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ch.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+                ch.socket().connect(address, connectTimeoutMs);
+            } catch (IOException e) {
+                if (ch != null) {
+                    ch.close();
+                }
+                long jitter = ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1);
+                nextAttemptAt = now + backoffMs + jitter;
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                throw e;
+            }
+
+            backoffMs = initialBackoffMs;
+            nextAttemptAt = 0;
+            channel = ch;
+            SocketChannel connected = ch;
+            Thread.ofVirtual().name("wms-reader-" + address).start(() -> readLoop(connected));
+            System.out.println("Connected to WMS at " + address);
+            return ch;
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    private void readLoop(SocketChannel ch) {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        try {
+            while (ch.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        onAck(line.toString(StandardCharsets.UTF_8));
+                        line.reset();
+                    } else {
+                        line.write(b);
+                    }
+                }
+                buffer.clear();
+            }
+            fail(ch, new IOException("WMS closed the connection"));
+        } catch (IOException e) {
+            fail(ch, e);
+        }
+    }
+
+    private void onAck(String ack) {
+        int sep = ack.lastIndexOf(':');
+        if (!ack.startsWith("ACK:") || sep < 0) {
+            System.out.println("Ignoring unexpected WMS reply: " + ack);
+            return;
+        }
+        try {
+            long correlationId = Long.parseLong(ack.substring(sep + 1).trim());
+            CompletableFuture<String> future = pending.get(correlationId);
+            if (future != null) {
+                future.complete(ack);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring uncorrelated WMS reply: " + ack);
+        }
+    }
+
+    // Closes the socket and fails everything still waiting on it
+    private void fail(SocketChannel ch, Throwable cause) {
+        connectLock.lock();
+        try {
+            if (channel == ch) {
+                channel = null;
+            }
+        } finally {
+            connectLock.unlock();
+        }
+        try {
+            ch.close();
+        } catch (IOException ignored) {
+        }
+        for (CompletableFuture<String> future : pending.values()) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    void close() {
+        SocketChannel ch = channel;
+        if (ch != null) {
+            fail(ch, new IOException("WMS client closed"));
+        }
+    }
+}
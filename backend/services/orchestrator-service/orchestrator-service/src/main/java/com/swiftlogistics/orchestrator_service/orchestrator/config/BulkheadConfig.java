@@ -0,0 +1,33 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.config;
+
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// One bulkhead per blocking downstream integration; ROS is bounded by RosBatcher's in-flight batches
+@Configuration
+public class BulkheadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead cmsBulkhead(@Value("${orchestrator.bulkhead.cms.max-concurrent:8}") int maxConcurrent,
+                                @Value("${orchestrator.bulkhead.cms.acquire-timeout-ms:1000}") long acquireTimeoutMs,
+                                MeterRegistry meterRegistry) {
+        return register(new Bulkhead("cms", maxConcurrent, acquireTimeoutMs), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead wmsBulkhead(@Value("${orchestrator.bulkhead.wms.max-concurrent:8}") int maxConcurrent,
+                                @Value("${orchestrator.bulkhead.wms.acquire-timeout-ms:1000}") long acquireTimeoutMs,
+                                MeterRegistry meterRegistry) {
+        return register(new Bulkhead("wms", maxConcurrent, acquireTimeoutMs), meterRegistry);
+    }
+
+    private Bulkhead register(Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        meterRegistry.gauge("orchestrator.bulkhead.available", Tags.of("adapter", bulkhead.getName()),
+                bulkhead, Bulkhead::availablePermits);
+        return bulkhead;
+    }
+}
@@ -1,11 +1,17 @@
 package com.swiftlogistics.orchestrator_service.orchestrator.events;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+
 import java.io.Serializable;
 
 public class OrderCreatedEvent implements Serializable {
     private Long orderId;
+    // order-service publishes this field as "customerName"
+    @JsonAlias("customerName")
     private String user;
     private String status;
+    // Null for orders published before the event carried it
+    private String reservationId;
 
     public OrderCreatedEvent() {}
 
@@ -38,4 +44,12 @@ public class OrderCreatedEvent implements Serializable {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
 }
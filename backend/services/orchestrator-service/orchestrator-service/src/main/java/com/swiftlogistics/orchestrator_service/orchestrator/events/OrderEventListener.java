@@ -1,39 +1,286 @@
 package com.swiftlogistics.orchestrator_service.orchestrator.events;
 
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.Bulkhead;
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms.CmsClient;
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms.CmsClientInfo;
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.cms.CmsOrderResponse;
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.ros.RosBatcher;
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.ros.RouteStop;
+import com.swiftlogistics.orchestrator_service.orchestrator.adapters.wms.WmsClient;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.CompensationHook;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.Saga;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.SagaStatus;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.SagaStep;
+import com.swiftlogistics.orchestrator_service.orchestrator.saga.SagaStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import com.swiftlogistics.orchestrator_service.orchestrator.config.RabbitMQConfig;
 import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 @Service
 public class OrderEventListener {
 
+    private final Bulkhead cmsBulkhead;
+    private final Bulkhead wmsBulkhead;
+    private final CmsClient cmsClient;
+    private final WmsClient wmsClient;
+    private final RosBatcher rosBatcher;
+    private final String deliveryAddress;
+    private final long orderTimeoutMs;
+    private final SagaStore sagaStore;
+    private final Map<SagaStep, CompensationHook> compensationHooks = new EnumMap<>(SagaStep.class);
+    private final ExecutorService stepRecorder = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Timer queueLag;
+    private final Timer cmsLatency;
+    private final Timer wmsLatency;
+    private final Timer rosLatency;
+    private final Timer totalLatency;
+
+    public OrderEventListener(@Qualifier("cmsBulkhead") Bulkhead cmsBulkhead,
+                              @Qualifier("wmsBulkhead") Bulkhead wmsBulkhead,
+                              CmsClient cmsClient,
+                              WmsClient wmsClient,
+                              RosBatcher rosBatcher,
+                              @Value("${ros.default-address:123 Main Street}") String deliveryAddress,
+                              @Value("${orchestrator.order-timeout-ms:30000}") long orderTimeoutMs,
+                              SagaStore sagaStore,
+                              List<CompensationHook> compensationHooks,
+                              MeterRegistry meterRegistry) {
+        this.cmsBulkhead = cmsBulkhead;
+        this.wmsBulkhead = wmsBulkhead;
+        this.cmsClient = cmsClient;
+        this.wmsClient = wmsClient;
+        this.rosBatcher = rosBatcher;
+        this.deliveryAddress = deliveryAddress;
+        this.orderTimeoutMs = orderTimeoutMs;
+        this.sagaStore = sagaStore;
+        for (CompensationHook hook : compensationHooks) {
+            this.compensationHooks.put(hook.step(), hook);
+        }
+
+        this.queueLag = meterRegistry.timer("orchestrator.queue.lag");
+        this.cmsLatency = meterRegistry.timer("orchestrator.stage.latency", "stage", "cms");
+        this.wmsLatency = meterRegistry.timer("orchestrator.stage.latency", "stage", "wms");
+        this.rosLatency = meterRegistry.timer("orchestrator.stage.latency", "stage", "ros");
+        this.totalLatency = meterRegistry.timer("orchestrator.stage.latency", "stage", "total");
+    }
+
     @RabbitListener(queues = RabbitMQConfig.QUEUE)
-    public void handleOrderCreated(OrderCreatedEvent event) {
+    public void handleOrderCreated(OrderCreatedEvent event,
+                                   @Header(name = AmqpHeaders.TIMESTAMP, required = false) Date publishedAt) {
+        if (publishedAt != null) {
+            queueLag.record(Math.max(0, System.currentTimeMillis() - publishedAt.getTime()), TimeUnit.MILLISECONDS);
+        }
         System.out.println("Orchestrator received: " + event);
 
-        // Step 1: Call CMS Adapter (SOAP)
-        callCMSAdapter(event);
+        Saga saga = sagaStore.begin(event);
+        if (saga == null) {
+            System.out.println("Order already processed, ignoring redelivery: " + event.getOrderId());
+            return;
+        }
+        runSaga(saga);
+    }
+
+    // Picks up sagas that were in flight when the service last stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedSagas() {
+        List<Saga> unfinished = sagaStore.unfinished();
+        if (unfinished.isEmpty()) {
+            return;
+        }
+        System.out.println("Resuming " + unfinished.size() + " unfinished saga(s)");
+        for (Saga saga : unfinished) {
+            Thread.ofVirtual().name("saga-resume-" + saga.getOrderId()).start(() -> runSaga(saga));
+        }
+    }
+
+    private void runSaga(Saga saga) {
+        if (!sagaStore.claim(saga)) {
+            System.out.println("Saga already running for order: " + saga.getOrderId());
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(orderTimeoutMs);
+        List<CompletableFuture<Void>> steps = new ArrayList<>();
+        try {
+            if (saga.getStatus() == SagaStatus.COMPENSATING) {
+                compensate(saga);
+                return;
+            }
+
+            // Step 1 + 2: CMS (SOAP) and WMS (TCP) don't depend on each other, run them in parallel
+            CompletableFuture<Void> cms = runStep(saga, SagaStep.CMS, cmsBulkhead, cmsLatency, this::callCMSAdapter);
+            CompletableFuture<Void> wms = runStep(saga, SagaStep.WMS, wmsBulkhead, wmsLatency, this::callWMSAdapter);
+            steps.add(cms);
+            steps.add(wms);
+            CompletableFuture.allOf(cms, wms).get(remaining(deadline), TimeUnit.NANOSECONDS);
+
+            // Step 3: Call ROS Adapter (REST), batched with other orders; no thread waits on it
+            CompletableFuture<Void> ros = runBatchedStep(saga, SagaStep.ROS, rosLatency, this::callROSAdapter);
+            steps.add(ros);
+            ros.get(remaining(deadline), TimeUnit.NANOSECONDS);
+
+            // Step 4: Publish OrderReadyEvent (optional)
+            sagaStore.completed(saga);
+            System.out.println("Order processed: " + saga.getOrderId());
+        } catch (InterruptedException e) {
+            // Left RUNNING on purpose; it is resumed on the next start
+            cancel(steps);
+            Thread.currentThread().interrupt();
+            System.out.println("Order processing interrupted: " + saga.getOrderId());
+        } catch (Exception e) {
+            System.out.println("Order processing failed: " + saga.getOrderId() + " - " + e);
+            // Stop steps still running (e.g. after the deadline) before deciding what to undo
+            cancel(steps);
+            try {
+                sagaStore.failed(saga, e.toString());
+                compensate(saga);
+            } catch (Exception compensationError) {
+                System.out.println("Compensation incomplete for order " + saga.getOrderId()
+                        + ", will retry on restart - " + compensationError);
+            }
+        } finally {
+            sagaStore.release(saga);
+            totalLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CompletableFuture<Void> runStep(Saga saga, SagaStep step, Bulkhead bulkhead, Timer latency,
+                                            Consumer<OrderCreatedEvent> call) {
+        if (saga.isCompleted(step)) {
+            System.out.println("Skipping " + step + " for order " + saga.getOrderId() + ", already done");
+            return CompletableFuture.completedFuture(null);
+        }
+        return bulkhead.submit(() -> {
+            timed(latency, () -> call.accept(saga.getEvent()));
+            if (!sagaStore.stepCompleted(saga, step)) {
+                compensateLateStep(saga, step);
+            }
+            return null;
+        });
+    }
 
-        // Step 2: Call WMS Adapter (TCP)
-        callWMSAdapter(event);
+    private CompletableFuture<Void> runBatchedStep(Saga saga, SagaStep step, Timer latency,
+                                                   Function<OrderCreatedEvent, CompletableFuture<?>> call) {
+        if (saga.isCompleted(step)) {
+            System.out.println("Skipping " + step + " for order " + saga.getOrderId() + ", already done");
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?> result = call.apply(saga.getEvent());
+        // Recorded off the batcher's sender, which completes a whole batch of callers
+        CompletableFuture<Void> recorded = result.thenRunAsync(() -> {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!sagaStore.stepCompleted(saga, step)) {
+                compensateLateStep(saga, step);
+            }
+        }, stepRecorder);
+        recorded.whenComplete((value, error) -> {
+            if (recorded.isCancelled()) {
+                result.cancel(true);
+            }
+        });
+        return recorded;
+    }
 
-        // Step 3: Call ROS Adapter (REST)
-        callROSAdapter(event);
+    private static void cancel(List<CompletableFuture<Void>> steps) {
+        for (CompletableFuture<Void> step : steps) {
+            step.cancel(true);
+        }
+    }
+
+    // The step finished after the saga had failed, too late to be part of its compensation
+    private void compensateLateStep(Saga saga, SagaStep step) {
+        CompensationHook hook = compensationHooks.get(step);
+        System.out.println(step + " finished after order " + saga.getOrderId() + " failed, undoing it");
+        if (hook == null) {
+            return;
+        }
+        try {
+            hook.compensate(saga.getEvent());
+        } catch (Exception e) {
+            System.out.println("Could not undo late " + step + " for order " + saga.getOrderId() + " - " + e);
+        }
+    }
+
+    // Undo completed steps newest first; a hook failure stops here and is retried on restart
+    private void compensate(Saga saga) throws Exception {
+        for (SagaStep step : saga.stepsToCompensate()) {
+            CompensationHook hook = compensationHooks.get(step);
+            if (hook != null) {
+                System.out.println("Compensating " + step + " for order " + saga.getOrderId());
+                hook.compensate(saga.getEvent());
+            }
+            sagaStore.stepCompensated(saga, step);
+        }
+        sagaStore.compensated(saga);
+        System.out.println("Order compensated: " + saga.getOrderId() + " (" + saga.getFailureReason() + ")");
+    }
+
+    // Unlike join(), gives up when the step is cancelled (its thread interrupted)
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
 
-        // Step 4: Publish OrderReadyEvent (optional)
-        System.out.println("Order processed: " + event.getOrderId());
+    private static Void timed(Timer timer, Runnable step) {
+        timer.record(step);
+        return null;
     }
 
     private void callCMSAdapter(OrderCreatedEvent event) {
         System.out.println("Calling CMS Adapter for order: " + event.getOrderId());
+        String clientId = event.getUser() != null ? event.getUser() : String.valueOf(event.getOrderId());
+        CmsClientInfo client = cmsClient.getClientInfo(clientId);
+        CmsOrderResponse response = cmsClient.createOrder(clientId, "Order " + event.getOrderId() + " for " + client.clientName());
+        System.out.println("CMS Response: " + response);
     }
 
     private void callWMSAdapter(OrderCreatedEvent event) {
         System.out.println("Calling WMS Adapter for order: " + event.getOrderId());
+        String ack = await(wmsClient.sendOrder(event.getOrderId()));
+        System.out.println("WMS Response: " + ack);
     }
 
-    private void callROSAdapter(OrderCreatedEvent event) {
+    private CompletableFuture<RouteStop> callROSAdapter(OrderCreatedEvent event) {
         System.out.println("Calling ROS Adapter for order: " + event.getOrderId());
+        return rosBatcher.optimizeRoute(event.getOrderId(), deliveryAddress).thenApply(stop -> {
+            System.out.println("ROS Response: order " + stop.orderId() + " ETA " + stop.estimatedTime());
+            return stop;
+        });
     }
 }
@@ -0,0 +1,15 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
+
+/**
+ * Undoes a completed step when a later step of the same order fails.
+ * Register as a bean; steps without a hook are just marked compensated.
+ * Hooks may run more than once after a crash, so they must be idempotent.
+ */
+public interface CompensationHook {
+
+    SagaStep step();
+
+    void compensate(OrderCreatedEvent event) throws Exception;
+}
@@ -0,0 +1,98 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory state of one order's workflow. Mutated only through {@link SagaStore},
+ * which logs every transition before applying it.
+ */
+public class Saga {
+
+    private final OrderCreatedEvent event;
+    private final Set<SagaStep> completedSteps = EnumSet.noneOf(SagaStep.class);
+    private final Set<SagaStep> compensatedSteps = EnumSet.noneOf(SagaStep.class);
+    private volatile SagaStatus status = SagaStatus.RUNNING;
+    private String failureReason;
+
+    Saga(OrderCreatedEvent event) {
+        this.event = event;
+        this.completedSteps.add(SagaStep.STOCK);
+    }
+
+    public long getOrderId() {
+        return event.getOrderId();
+    }
+
+    public OrderCreatedEvent getEvent() {
+        return event;
+    }
+
+    public SagaStatus getStatus() {
+        return status;
+    }
+
+    boolean isFinished() {
+        return status == SagaStatus.COMPLETED || status == SagaStatus.COMPENSATED;
+    }
+
+    public synchronized String getFailureReason() {
+        return failureReason;
+    }
+
+    public synchronized boolean isCompleted(SagaStep step) {
+        return completedSteps.contains(step);
+    }
+
+    // Completed steps that still need compensating, latest step first
+    public synchronized List<SagaStep> stepsToCompensate() {
+        List<SagaStep> steps = new ArrayList<>();
+        SagaStep[] all = SagaStep.values();
+        for (int i = all.length - 1; i >= 0; i--) {
+            if (completedSteps.contains(all[i]) && !compensatedSteps.contains(all[i])) {
+                steps.add(all[i]);
+            }
+        }
+        return steps;
+    }
+
+    synchronized void apply(SagaEntry entry) {
+        switch (entry.type()) {
+            case BEGIN -> { }
+            case STEP_COMPLETED -> completedSteps.add(entry.step());
+            case COMPLETED -> status = SagaStatus.COMPLETED;
+            case FAILED -> {
+                status = SagaStatus.COMPENSATING;
+                failureReason = entry.reason();
+            }
+            case STEP_COMPENSATED -> compensatedSteps.add(entry.step());
+            case COMPENSATED -> status = SagaStatus.COMPENSATED;
+        }
+    }
+
+    // Entries that recreate this saga's current state, used when compacting the log
+    synchronized List<SagaEntry> snapshot() {
+        List<SagaEntry> entries = new ArrayList<>();
+        entries.add(SagaEntry.begin(event));
+        for (SagaStep step : completedSteps) {
+            entries.add(SagaEntry.of(getOrderId(), SagaEntry.Type.STEP_COMPLETED, step, null));
+        }
+        if (status == SagaStatus.COMPENSATING) {
+            entries.add(SagaEntry.of(getOrderId(), SagaEntry.Type.FAILED, null, failureReason));
+            for (SagaStep step : compensatedSteps) {
+                entries.add(SagaEntry.of(getOrderId(), SagaEntry.Type.STEP_COMPENSATED, step, null));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Saga{orderId=" + getOrderId() + ", status=" + status + ", completed=" + completedSteps
+                + ", compensated=" + compensatedSteps + "}";
+    }
+}
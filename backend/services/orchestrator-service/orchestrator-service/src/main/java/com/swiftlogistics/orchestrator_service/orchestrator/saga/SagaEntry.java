@@ -0,0 +1,29 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
+
+/**
+ * One line of the saga log. Only BEGIN carries the event; replaying the
+ * entries of an order in file order rebuilds its {@link Saga}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SagaEntry(long orderId, Type type, SagaStep step, OrderCreatedEvent event, String reason, long at) {
+
+    public enum Type {
+        BEGIN,
+        STEP_COMPLETED,
+        COMPLETED,
+        FAILED,
+        STEP_COMPENSATED,
+        COMPENSATED
+    }
+
+    static SagaEntry begin(OrderCreatedEvent event) {
+        return new SagaEntry(event.getOrderId(), Type.BEGIN, null, event, null, System.currentTimeMillis());
+    }
+
+    static SagaEntry of(long orderId, Type type, SagaStep step, String reason) {
+        return new SagaEntry(orderId, type, step, null, reason, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,239 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only, newline-delimited JSON log with group commit. Appends from all
+ * consumer threads are queued and a single writer thread writes whatever has
+ * accumulated, forces it to disk once, then completes every waiting future, so
+ * the fsync cost is shared by all sagas that advanced in the meantime.
+ *
+ * When the file grows past {@code maxBytes} the writer replaces it with a
+ * snapshot of the sagas that are still live. The snapshot comes from the writer's
+ * own copy of the sagas, rebuilt from the entries it has written, so an entry that
+ * was acknowledged but not yet applied by its caller is never compacted away.
+ */
+public class SagaLog implements AutoCloseable {
+
+    private record Pending(SagaEntry entry, CompletableFuture<Void> written) {}
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final int maxBatch;
+    private final long maxBytes;
+    private final boolean fsync;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+
+    // Touched only by the writer thread (and by open() before it starts)
+    private final Map<Long, Saga> written = new HashMap<>();
+
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+
+    public SagaLog(Path file, ObjectMapper objectMapper, int maxBatch, long maxBytes, boolean fsync,
+                   MeterRegistry meterRegistry) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.maxBatch = maxBatch;
+        this.maxBytes = maxBytes;
+        this.fsync = fsync;
+        this.batchSizes = DistributionSummary.builder("saga.log.batch.size")
+                .description("Entries written per group commit")
+                .register(meterRegistry);
+        this.flushLatency = meterRegistry.timer("saga.log.flush.latency");
+    }
+
+    // Reads every entry; a torn last line from a crash mid-write is ignored
+    public List<SagaEntry> replay() {
+        List<SagaEntry> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, SagaEntry.class));
+                } catch (IOException e) {
+                    System.out.println("Skipping unreadable saga log line: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read saga log " + file, e);
+        }
+        return entries;
+    }
+
+    // Rewrites the log to the entries of the live sagas and starts accepting appends
+    public void open(List<SagaEntry> initial) {
+        for (SagaEntry entry : initial) {
+            track(entry);
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            rewrite(snapshot());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open saga log " + file, e);
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("saga-log-writer").daemon().start(this::writeLoop);
+    }
+
+    public CompletableFuture<Void> append(SagaEntry entry) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        if (!running) {
+            written.completeExceptionally(new IllegalStateException("Saga log is closed"));
+            return written;
+        }
+        queue.add(new Pending(entry, written));
+        return written;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                flush(batch);
+                if (channel.size() > maxBytes) {
+                    rewrite(snapshot());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                System.out.println("Saga log write failed: " + e);
+                for (Pending pending : batch) {
+                    pending.written().completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        for (Pending pending : queue) {
+            pending.written().completeExceptionally(new IllegalStateException("Saga log is closed"));
+        }
+    }
+
+    private void flush(List<Pending> batch) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 128);
+        for (Pending pending : batch) {
+            out.write(objectMapper.writeValueAsBytes(pending.entry()));
+            out.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        for (Pending pending : batch) {
+            track(pending.entry());
+            pending.written().complete(null);
+        }
+    }
+
+    // Same rules as SagaStore's replay: finished sagas are dropped
+    private void track(SagaEntry entry) {
+        if (entry.type() == SagaEntry.Type.BEGIN) {
+            written.putIfAbsent(entry.orderId(), new Saga(entry.event()));
+            return;
+        }
+        Saga saga = written.get(entry.orderId());
+        if (saga == null) {
+            return;
+        }
+        saga.apply(entry);
+        if (saga.isFinished()) {
+            written.remove(entry.orderId());
+        }
+    }
+
+    private List<SagaEntry> snapshot() {
+        List<SagaEntry> entries = new ArrayList<>();
+        for (Saga saga : written.values()) {
+            entries.addAll(saga.snapshot());
+        }
+        return entries;
+    }
+
+    // Writes the entries to a temp file and atomically swaps it in
+    private void rewrite(List<SagaEntry> entries) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (SagaEntry entry : entries) {
+                bytes.write(objectMapper.writeValueAsBytes(entry));
+                bytes.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Could not close saga log: " + e.getMessage());
+        }
+    }
+}
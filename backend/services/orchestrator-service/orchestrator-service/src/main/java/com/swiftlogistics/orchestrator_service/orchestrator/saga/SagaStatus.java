@@ -0,0 +1,8 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+public enum SagaStatus {
+    RUNNING,
+    COMPLETED,
+    COMPENSATING,
+    COMPENSATED
+}
@@ -0,0 +1,10 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+// Steps of the order workflow, in the order they are compensated in reverse
+public enum SagaStep {
+    // Reserved by order-service at checkout, so every saga starts with it completed
+    STOCK,
+    CMS,
+    WMS,
+    ROS
+}
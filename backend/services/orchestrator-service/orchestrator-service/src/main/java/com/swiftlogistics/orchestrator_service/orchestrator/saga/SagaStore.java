@@ -0,0 +1,163 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durable per-order workflow state backed by {@link SagaLog}. Every transition
+ * is written (group-committed) before the caller moves on, so after a restart
+ * finished steps are skipped and unfinished sagas can be resumed.
+ *
+ * Finished sagas are dropped from the log when it is compacted. The ids of the
+ * most recently finished orders are remembered so a redelivered event for one
+ * of them is ignored instead of re-running its steps.
+ */
+@Component
+public class SagaStore {
+
+    private final SagaLog log;
+    private final Map<Long, Saga> live = new ConcurrentHashMap<>();
+    private final Set<Long> finished;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public SagaStore(ObjectMapper objectMapper,
+                     @Value("${saga.log.file:data/saga/saga.log}") String file,
+                     @Value("${saga.log.max-batch:256}") int maxBatch,
+                     @Value("${saga.log.max-bytes:16777216}") long maxBytes,
+                     @Value("${saga.log.fsync:true}") boolean fsync,
+                     @Value("${saga.finished-ids-to-remember:100000}") int finishedIdsToRemember,
+                     MeterRegistry meterRegistry) {
+        this.finished = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > finishedIdsToRemember;
+            }
+        }));
+        this.log = new SagaLog(Path.of(file), objectMapper, maxBatch, maxBytes, fsync, meterRegistry);
+
+        for (SagaEntry entry : log.replay()) {
+            if (entry.type() == SagaEntry.Type.BEGIN) {
+                live.putIfAbsent(entry.orderId(), new Saga(entry.event()));
+                continue;
+            }
+            Saga saga = live.get(entry.orderId());
+            if (saga == null) {
+                continue;
+            }
+            saga.apply(entry);
+            if (saga.isFinished()) {
+                live.remove(entry.orderId());
+                finished.add(entry.orderId());
+            }
+        }
+        log.open(snapshot());
+
+        meterRegistry.gauge("saga.live", live, Map::size);
+        System.out.println("Saga store loaded " + live.size() + " unfinished saga(s) from " + file);
+    }
+
+    /**
+     * Starts the saga for this event, or returns the existing one if the order
+     * was seen before and has not finished. Returns null for an order that
+     * already finished, so redelivered messages are no-ops.
+     */
+    public Saga begin(OrderCreatedEvent event) {
+        Long orderId = event.getOrderId();
+        if (finished.contains(orderId)) {
+            return null;
+        }
+        Saga existing = live.get(orderId);
+        if (existing != null) {
+            return existing;
+        }
+        Saga saga = new Saga(event);
+        Saga raced = live.putIfAbsent(orderId, saga);
+        if (raced != null) {
+            return raced;
+        }
+        log.append(SagaEntry.begin(event)).join();
+        return saga;
+    }
+
+    // Only one thread may drive a saga at a time (redelivery can race a resume)
+    public boolean claim(Saga saga) {
+        return running.add(saga.getOrderId());
+    }
+
+    public void release(Saga saga) {
+        running.remove(saga.getOrderId());
+    }
+
+    public List<Saga> unfinished() {
+        return new ArrayList<>(live.values());
+    }
+
+    /**
+     * Records a finished step, unless the saga has already failed: then nothing is written
+     * and false is returned, and the caller must undo the step itself, since compensation
+     * has already decided which steps to undo without it.
+     */
+    public boolean stepCompleted(Saga saga, SagaStep step) {
+        // Serialised with failed(), so a step is either in the compensation or reported back
+        synchronized (saga) {
+            if (saga.getStatus() != SagaStatus.RUNNING) {
+                return false;
+            }
+            record(saga, SagaEntry.of(saga.getOrderId(), SagaEntry.Type.STEP_COMPLETED, step, null));
+            return true;
+        }
+    }
+
+    public void completed(Saga saga) {
+        record(saga, SagaEntry.of(saga.getOrderId(), SagaEntry.Type.COMPLETED, null, null));
+    }
+
+    public void failed(Saga saga, String reason) {
+        synchronized (saga) {
+            record(saga, SagaEntry.of(saga.getOrderId(), SagaEntry.Type.FAILED, null, reason));
+        }
+    }
+
+    public void stepCompensated(Saga saga, SagaStep step) {
+        record(saga, SagaEntry.of(saga.getOrderId(), SagaEntry.Type.STEP_COMPENSATED, step, null));
+    }
+
+    public void compensated(Saga saga) {
+        record(saga, SagaEntry.of(saga.getOrderId(), SagaEntry.Type.COMPENSATED, null, null));
+    }
+
+    private void record(Saga saga, SagaEntry entry) {
+        log.append(entry).join();
+        saga.apply(entry);
+        if (saga.isFinished()) {
+            finished.add(saga.getOrderId());
+            live.remove(saga.getOrderId());
+        }
+    }
+
+    private List<SagaEntry> snapshot() {
+        List<SagaEntry> entries = new ArrayList<>();
+        for (Saga saga : live.values()) {
+            entries.addAll(saga.snapshot());
+        }
+        return entries;
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+}
@@ -0,0 +1,131 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.ros;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * More orders than one batch holds arrive while every send slot is busy. They must wait
+ * for a free slot and then go out in batches of at most max-size, one slot each, with
+ * every caller getting its own stop back. Runs against an in-process ROS that holds
+ * each call until the test lets it answer.
+ */
+class RosBatcherTest {
+
+    private static final int MAX_SIZE = 5;
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final long MAX_DELAY_MS = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Orders in each /optimizeRoute call, in arrival order
+    private final List<List<Long>> calls = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final CountDownLatch answer = new CountDownLatch(1);
+
+    private HttpServer server;
+    private RosBatcher batcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/optimizeRoute", this::optimizeRoute);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+
+        batcher = new RosBatcher(RestClient.builder(), "http://localhost:" + server.getAddress().getPort(),
+                MAX_SIZE, MAX_DELAY_MS, MAX_IN_FLIGHT, 1000, 5000, List.of("Van1"), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        answer.countDown();
+        batcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void backlogIsSplitAcrossFreedSlotsInBatchesOfMaxSize() throws Exception {
+        Map<Long, CompletableFuture<RouteStop>> results = new LinkedHashMap<>();
+        // Two full batches take both slots
+        for (long orderId = 1; orderId <= 10; orderId++) {
+            results.put(orderId, batcher.optimizeRoute(orderId, "Street " + orderId));
+        }
+        awaitCalls(2);
+
+        // 12 more than fit in one batch, and overdue before a slot frees up
+        for (long orderId = 11; orderId <= 22; orderId++) {
+            results.put(orderId, batcher.optimizeRoute(orderId, "Street " + orderId));
+        }
+        Thread.sleep(MAX_DELAY_MS * 3);
+        assertEquals(2, calls.size(), "sent while every slot was busy");
+
+        answer.countDown();
+        for (Map.Entry<Long, CompletableFuture<RouteStop>> result : results.entrySet()) {
+            RouteStop stop = result.getValue().get(5, TimeUnit.SECONDS);
+            assertEquals(result.getKey(), stop.orderId());
+            assertEquals("Street " + result.getKey(), stop.address());
+        }
+
+        List<Integer> sizes = calls.stream().map(List::size).sorted().toList();
+        assertEquals(List.of(2, 5, 5, 5, 5), sizes);
+        List<Long> sent = calls.stream().flatMap(List::stream).sorted().toList();
+        assertEquals(new ArrayList<>(results.keySet()), sent);
+        assertTrue(maxConcurrent.get() <= MAX_IN_FLIGHT, "calls in flight: " + maxConcurrent.get());
+    }
+
+    private void awaitCalls(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (calls.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, calls.size());
+    }
+
+    // Answers with one stop per requested order, once the test allows it
+    private void optimizeRoute(HttpExchange exchange) throws IOException {
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            List<Long> orderIds = new ArrayList<>();
+            ObjectNode response = objectMapper.createObjectNode().put("routeId", calls.size() + 1);
+            ArrayNode route = response.putArray("route");
+            for (JsonNode order : request.get("orders")) {
+                orderIds.add(order.get("orderId").asLong());
+                route.addObject()
+                        .put("orderId", order.get("orderId").asLong())
+                        .put("address", order.get("address").asText())
+                        .put("estimatedTime", "10:00");
+            }
+            calls.add(orderIds);
+
+            answer.await();
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            concurrent.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.adapters.wms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pipelined throughput and correctness of WmsClient. Runs against an in-process server
+ * that speaks the same newline-framed ACK protocol as wms-mock.js, but answers each
+ * burst of lines in reverse order so replies only reach the right caller through the
+ * correlation id. Pass -Dwms.port=3003 to target the real mock instead (start it with
+ * `node wms-mock.js`); the server-side checks are skipped then.
+ *
+ * Fails below -Dwms.min-msgs-per-second (default 2000) per connection.
+ */
+class WmsClientLoadTest {
+
+    private static final int MESSAGES = 20_000;
+    private static final long MIN_PER_SECOND = Long.getLong("wms.min-msgs-per-second", 2000);
+
+    // Times each correlation id reached the in-process server
+    private final Map<Long, AtomicInteger> received = new ConcurrentHashMap<>();
+    private ServerSocket server;
+    private String host;
+    private int port;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        if (System.getProperty("wms.port") != null) {
+            host = System.getProperty("wms.host", "localhost");
+            port = Integer.getInteger("wms.port");
+            return;
+        }
+        server = new ServerSocket(0);
+        host = "localhost";
+        port = server.getLocalPort();
+        Thread.ofVirtual().start(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread.ofVirtual().start(() -> ack(socket, received));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    private static void ack(Socket socket, Map<Long, AtomicInteger> received) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            Deque<String> burst = new ArrayDeque<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                received.computeIfAbsent(correlationId(line), id -> new AtomicInteger()).incrementAndGet();
+                burst.push(line);
+                if (!in.ready()) {
+                    while (!burst.isEmpty()) {
+                        out.write("ACK:" + burst.pop() + "\n");
+                    }
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static long correlationId(String line) {
+        return Long.parseLong(line.substring(line.lastIndexOf(':') + 1));
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void singleConnectionThroughput() {
+        run(1);
+    }
+
+    @Test
+    void pooledConnectionThroughput() {
+        run(2);
+    }
+
+    private void run(int poolSize) {
+        WmsClient client = new WmsClient(host, port, poolSize, 64, 1000, 10_000, 100, 5000);
+        try {
+            client.sendOrder(0L).join(); // connect + warm up
+            received.clear();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> acks = new ArrayList<>(MESSAGES);
+            for (long orderId = 1; orderId <= MESSAGES; orderId++) {
+                acks.add(client.sendOrder(orderId));
+            }
+            Set<Long> answered = new HashSet<>();
+            for (int i = 0; i < acks.size(); i++) {
+                String ack = acks.get(i).join();
+                // Each caller gets the reply to its own message, and no reply goes to two callers
+                assertTrue(ack.startsWith("ACK:ORDER:" + (i + 1) + ":RECEIVED:"), ack);
+                assertTrue(answered.add(correlationId(ack)), "correlation id answered twice: " + ack);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double perSecond = MESSAGES / seconds;
+            System.out.printf("WMS pipelined: %d connection(s), %d msgs in %.2fs = %.0f msgs/s (%.0f msgs/s per connection)%n",
+                    poolSize, MESSAGES, seconds, perSecond, perSecond / poolSize);
+            assertEquals(MESSAGES, answered.size());
+            if (server != null) {
+                // Every message went out exactly once
+                assertEquals(answered, received.keySet());
+                assertTrue(received.values().stream().allMatch(count -> count.get() == 1), "a message was sent twice");
+            }
+            assertTrue(perSecond / poolSize >= MIN_PER_SECOND,
+                    String.format("%.0f msgs/s per connection is below the %d floor", perSecond / poolSize, MIN_PER_SECOND));
+        } finally {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.swiftlogistics.orchestrator_service.orchestrator.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.orchestrator_service.orchestrator.events.OrderCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A restart must pick every unfinished saga up where it stopped: finished steps stay
+ * finished, a failed saga resumes compensating, and a finished order is not run again.
+ * The first store is never closed, as if the process had died, and its log ends in a
+ * half-written line.
+ */
+class SagaStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAfterCrashResumesUnfinishedSagas() throws IOException {
+        replayAfterCrash(16 * 1024 * 1024);
+    }
+
+    @Test
+    void replayAfterCrashSurvivesCompaction() throws IOException {
+        // Past maxBytes after every write, so the log is compacted each time
+        replayAfterCrash(1);
+    }
+
+    private void replayAfterCrash(long maxBytes) throws IOException {
+        Path file = dir.resolve("saga.log");
+        SagaStore crashed = open(file, maxBytes);
+        SagaStore restarted = null;
+        try {
+            Saga running = crashed.begin(event(1));
+            assertTrue(crashed.stepCompleted(running, SagaStep.CMS));
+
+            Saga compensating = crashed.begin(event(2));
+            assertTrue(crashed.stepCompleted(compensating, SagaStep.CMS));
+            assertTrue(crashed.stepCompleted(compensating, SagaStep.WMS));
+            crashed.failed(compensating, "ROS down");
+            crashed.stepCompensated(compensating, SagaStep.WMS);
+
+            Saga done = crashed.begin(event(3));
+            crashed.stepCompleted(done, SagaStep.CMS);
+            crashed.stepCompleted(done, SagaStep.WMS);
+            crashed.stepCompleted(done, SagaStep.ROS);
+            crashed.completed(done);
+
+            // Torn by the crash mid-write
+            Files.writeString(file, "{\"orderId\":4,\"type\":\"BEG", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            restarted = open(file, maxBytes);
+            Map<Long, Saga> unfinished = restarted.unfinished().stream()
+                    .collect(Collectors.toMap(Saga::getOrderId, Function.identity()));
+            assertEquals(2, unfinished.size());
+
+            Saga resumed = unfinished.get(1L);
+            assertEquals(SagaStatus.RUNNING, resumed.getStatus());
+            assertTrue(resumed.isCompleted(SagaStep.CMS));
+            assertFalse(resumed.isCompleted(SagaStep.WMS));
+            assertEquals("alice", resumed.getEvent().getUser());
+            assertEquals("reservation-1", resumed.getEvent().getReservationId());
+            // Redelivery hands back the resumed saga instead of starting over
+            assertSame(resumed, restarted.begin(event(1)));
+
+            Saga undoing = unfinished.get(2L);
+            assertEquals(SagaStatus.COMPENSATING, undoing.getStatus());
+            assertEquals("ROS down", undoing.getFailureReason());
+            assertEquals(List.of(SagaStep.CMS, SagaStep.STOCK), undoing.stepsToCompensate());
+            // A step finishing after the failure is not recorded
+            assertFalse(restarted.stepCompleted(undoing, SagaStep.ROS));
+
+            assertNull(restarted.begin(event(3)));
+        } finally {
+            crashed.close();
+            if (restarted != null) {
+                restarted.close();
+            }
+        }
+    }
+
+    private static SagaStore open(Path file, long maxBytes) {
+        return new SagaStore(new ObjectMapper(), file.toString(), 256, maxBytes, false, 1000,
+                new SimpleMeterRegistry());
+    }
+
+    private static OrderCreatedEvent event(long orderId) {
+        OrderCreatedEvent event = new OrderCreatedEvent(orderId, "alice", "PENDING");
+        event.setReservationId("reservation-" + orderId);
+        return event;
+    }
+}
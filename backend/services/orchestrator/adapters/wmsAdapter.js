@@ -7,12 +7,12 @@ class WMSAdapter {
     return new Promise((resolve, reject) => {
       const socket = new net.Socket();
       socket.connect(WMS_PORT, WMS_HOST, () => {
-        const msg = `ORDER:${orderId}:RECEIVED`;
+        const msg = `ORDER:${orderId}:RECEIVED\n`;
         socket.write(msg);
       });
 
       socket.on('data', (data) => {
-        resolve(data.toString());
+        resolve(data.toString().trim());
         socket.destroy();
       });
 
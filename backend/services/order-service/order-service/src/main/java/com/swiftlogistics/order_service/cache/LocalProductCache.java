@@ -0,0 +1,86 @@
+package com.swiftlogistics.order_service.cache;
+
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process LRU cache of product lookups with a hard size bound and a per-entry TTL.
+ */
+public class LocalProductCache {
+
+    private record Entry(ProductResponseDTO product, long expiresAt) {}
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    public LocalProductCache(int maxSize, long ttlMs, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > LocalProductCache.this.maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = meterRegistry.counter("product.cache.requests", "tier", "local", "result", "hit");
+        this.misses = meterRegistry.counter("product.cache.requests", "tier", "local", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("product.cache.evictions", "tier", "local", "cause", "size");
+        this.expiredEvictions = meterRegistry.counter("product.cache.evictions", "tier", "local", "cause", "expired");
+        this.invalidations = meterRegistry.counter("product.cache.evictions", "tier", "local", "cause", "invalidated");
+        meterRegistry.gauge("product.cache.size", Tags.of("tier", "local"), this, LocalProductCache::size);
+    }
+
+    public synchronized Map<Integer, ProductResponseDTO> getAll(Collection<Integer> productIds) {
+        long now = System.nanoTime();
+        Map<Integer, ProductResponseDTO> result = new HashMap<>();
+        for (Integer productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAt() - now <= 0) {
+                entries.remove(productId);
+                expiredEvictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+                result.put(productId, entry.product());
+            }
+        }
+        return result;
+    }
+
+    public synchronized void putAll(Collection<ProductResponseDTO> products) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        for (ProductResponseDTO product : products) {
+            entries.put(product.getProductId(), new Entry(product, expiresAt));
+        }
+    }
+
+    public synchronized void evict(int productId) {
+        if (entries.remove(productId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.swiftlogistics.order_service.cache;
+
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+// Local stand-in used when Redis is disabled: every lookup falls through to product-service
+public class NoOpRemoteProductCache implements RemoteProductCache {
+
+    @Override
+    public Map<Integer, ProductResponseDTO> getAll(Collection<Integer> productIds) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public void putAll(Collection<ProductResponseDTO> products) {
+    }
+
+    @Override
+    public void evict(int productId) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.swiftlogistics.order_service.cache;
+
+import com.swiftlogistics.order_service.client.ProductFanOutExecutor;
+import com.swiftlogistics.order_service.client.ProductLookupException;
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier read-through cache in front of product-service:
+ * local LRU first, then the shared remote cache, then a fan-out to product-service.
+ * Entries are dropped when product-service publishes a change event for the product.
+ *
+ * Every invalidation is stamped with a new generation. A lookup writes back only the
+ * products not invalidated since it began, so a value read before a change cannot be
+ * cached after it.
+ */
+@Component
+public class ProductPriceCache {
+
+    private static final int MAX_INVALIDATIONS = 10_000;
+
+    private final LocalProductCache localCache;
+    private final RemoteProductCache remoteCache;
+    private final ProductFanOutExecutor productFanOutExecutor;
+    private final long retryAfterSeconds;
+
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    private final AtomicLong generation = new AtomicLong();
+    // Generation of each product's latest invalidation. Only the newest records are kept;
+    // a dropped record's generation becomes the floor for every product without one, so
+    // a write-back may be skipped needlessly but never let through wrongly.
+    private final LinkedHashMap<Integer, Long> invalidatedAt = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+            if (size() > MAX_INVALIDATIONS) {
+                invalidationFloor = Math.max(invalidationFloor, eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private long invalidationFloor;
+
+    public ProductPriceCache(LocalProductCache localCache,
+                             RemoteProductCache remoteCache,
+                             ProductFanOutExecutor productFanOutExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${product.fanout.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.productFanOutExecutor = productFanOutExecutor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.remoteHits = meterRegistry.counter("product.cache.requests", "tier", "remote", "result", "hit");
+        this.remoteMisses = meterRegistry.counter("product.cache.requests", "tier", "remote", "result", "miss");
+    }
+
+    // Ids product-service doesn't know are absent from the result. Throws ProductLookupException
+    // when some could not be looked up at all; whatever did arrive is cached first.
+    public Map<Integer, ProductResponseDTO> getProducts(Collection<Integer> productIds) {
+        long fetchGeneration = generation.get();
+        Set<Integer> missing = new LinkedHashSet<>(productIds);
+        Map<Integer, ProductResponseDTO> result = new HashMap<>(localCache.getAll(missing));
+        missing.removeAll(result.keySet());
+
+        if (!missing.isEmpty()) {
+            Map<Integer, ProductResponseDTO> remote = remoteCache.getAll(missing);
+            remoteHits.increment(remote.size());
+            remoteMisses.increment(missing.size() - remote.size());
+            store(remote.values(), fetchGeneration, false);
+            result.putAll(remote);
+            missing.removeAll(remote.keySet());
+        }
+
+        if (!missing.isEmpty()) {
+            ProductFanOutExecutor.Result fetched = productFanOutExecutor.fetchProducts(missing);
+            store(fetched.products().values(), fetchGeneration, true);
+            if (!fetched.isComplete()) {
+                throw new ProductLookupException(fetched.failed(), fetched.timedOut(), retryAfterSeconds);
+            }
+            result.putAll(fetched.products());
+        }
+
+        return result;
+    }
+
+    // Recorded before the evictions, so a write-back racing with them is either skipped or undone
+    public void invalidate(int productId) {
+        synchronized (invalidatedAt) {
+            invalidatedAt.remove(productId);
+            invalidatedAt.put(productId, generation.incrementAndGet());
+        }
+        localCache.evict(productId);
+        remoteCache.evict(productId);
+    }
+
+    private void store(Collection<ProductResponseDTO> products, long fetchGeneration, boolean toRemote) {
+        List<ProductResponseDTO> current = new ArrayList<>(products.size());
+        for (ProductResponseDTO product : products) {
+            if (!invalidatedSince(product.getProductId(), fetchGeneration)) {
+                current.add(product);
+            }
+        }
+        if (current.isEmpty()) {
+            return;
+        }
+        localCache.putAll(current);
+        if (toRemote) {
+            remoteCache.putAll(current);
+        }
+        // An invalidation that landed between the check and the put
+        for (ProductResponseDTO product : current) {
+            if (invalidatedSince(product.getProductId(), fetchGeneration)) {
+                localCache.evict(product.getProductId());
+                if (toRemote) {
+                    remoteCache.evict(product.getProductId());
+                }
+            }
+        }
+    }
+
+    private boolean invalidatedSince(int productId, long fetchGeneration) {
+        if (generation.get() == fetchGeneration) {
+            return false;
+        }
+        synchronized (invalidatedAt) {
+            return invalidatedAt.getOrDefault(productId, invalidationFloor) > fetchGeneration;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.swiftlogistics.order_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.*;
+
+public class RedisProductCache implements RemoteProductCache {
+
+    private static final String KEY_PREFIX = "product:price:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+
+    public RedisProductCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = Math.max(1, ttlMs / 1000);
+    }
+
+    @Override
+    public Map<Integer, ProductResponseDTO> getAll(Collection<Integer> productIds) {
+        List<Integer> ids = new ArrayList<>(productIds);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            keys.add(KEY_PREFIX + id);
+        }
+
+        Map<Integer, ProductResponseDTO> result = new HashMap<>();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return result;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                String json = values.get(i);
+                if (json != null) {
+                    result.put(ids.get(i), objectMapper.readValue(json, ProductResponseDTO.class));
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Redis product cache read failed: " + e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Collection<ProductResponseDTO> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> values = new HashMap<>();
+            for (ProductResponseDTO product : products) {
+                values.put(KEY_PREFIX + product.getProductId(), objectMapper.writeValueAsString(product));
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                values.forEach((key, json) -> stringConnection.setEx(key, ttlSeconds, json));
+                return null;
+            });
+        } catch (Exception e) {
+            System.out.println("⚠️ Redis product cache write failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(int productId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + productId);
+        } catch (Exception e) {
+            System.out.println("⚠️ Redis product cache evict failed: " + e.getMessage());
+        }
+    }
+}
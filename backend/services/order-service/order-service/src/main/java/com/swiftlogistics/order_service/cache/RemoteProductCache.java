@@ -0,0 +1,19 @@
+package com.swiftlogistics.order_service.cache;
+
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Shared second-tier product cache, e.g. Redis. Implementations must treat
+ * backend failures as misses rather than failing the checkout.
+ */
+public interface RemoteProductCache {
+
+    Map<Integer, ProductResponseDTO> getAll(Collection<Integer> productIds);
+
+    void putAll(Collection<ProductResponseDTO> products);
+
+    void evict(int productId);
+}
@@ -0,0 +1,85 @@
+package com.swiftlogistics.order_service.client;
+
+import com.swiftlogistics.order_service.dto.request.StockReservationRequest;
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+import com.swiftlogistics.order_service.dto.response.StockReservationDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+
+@Component
+@RequiredArgsConstructor
+public class ProductClient {
+
+    private final RestTemplate restTemplate;
+
+    // A discovery service id, resolved per call by the load-balanced RestTemplate
+    @Value("${product.url:http://product-service/api/product}")
+    private String productServiceUrl;
+
+    // product-service only accepts stock calls that carry this
+    @Value("${internal.service.secret:}")
+    private String serviceSecret;
+
+    // Fetch all products for the given ids in one round trip, keyed by productId
+    public Map<Integer, ProductResponseDTO> getProductsByIds(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        ProductResponseDTO[] products = restTemplate.postForObject(
+                productServiceUrl + "/ids",
+                ids,
+                ProductResponseDTO[].class
+        );
+
+        Map<Integer, ProductResponseDTO> result = new HashMap<>();
+        if (products != null) {
+            for (ProductResponseDTO product : products) {
+                result.put(product.getProductId(), product);
+            }
+        }
+        return result;
+    }
+
+    // Reserves stock for a whole order in one call. Returns the productIds that are short,
+    // empty when everything was reserved; nothing is reserved if any product is short.
+    public List<Integer> reserveStock(String reservationId, Map<Integer, Integer> quantities) {
+        List<StockReservationRequest.Item> items = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> items.add(new StockReservationRequest.Item(productId, quantity)));
+        try {
+            restTemplate.postForObject(productServiceUrl + "/stock/reservations",
+                    serviceRequest(new StockReservationRequest(reservationId, items)), StockReservationDTO.class);
+            return Collections.emptyList();
+        } catch (HttpClientErrorException.Conflict e) {
+            StockReservationDTO refused = e.getResponseBodyAs(StockReservationDTO.class);
+            if (refused == null || refused.getInsufficient() == null || refused.getInsufficient().isEmpty()) {
+                throw new RuntimeException("Stock reservation " + reservationId + " was refused");
+            }
+            return refused.getInsufficient();
+        }
+    }
+
+    public void commitReservation(String reservationId, int orderId) {
+        restTemplate.postForObject(productServiceUrl + "/stock/reservations/{reservationId}/commit?orderId={orderId}",
+                serviceRequest(null), StockReservationDTO.class, reservationId, orderId);
+    }
+
+    public void releaseReservation(String reservationId) {
+        restTemplate.postForObject(productServiceUrl + "/stock/reservations/{reservationId}/release",
+                serviceRequest(null), StockReservationDTO.class, reservationId);
+    }
+
+    private <T> HttpEntity<T> serviceRequest(T body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Service-Token", serviceSecret);
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,154 @@
+package com.swiftlogistics.order_service.client;
+
+import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Fetches product prices for a checkout in parallel on virtual threads.
+ * Ids are split into batches of {@code product.fanout.batch-size}; at most
+ * {@code product.fanout.max-concurrency} batches are in flight per request, and
+ * the whole fan-out is bounded by {@code product.fanout.deadline-ms}.
+ * Ids from batches that fail or miss the deadline come back in {@link Result#failed()}
+ * rather than silently missing; ids product-service doesn't know are simply absent.
+ */
+@Component
+public class ProductFanOutExecutor {
+
+    // timedOut is set when any failed batch missed the deadline rather than erroring
+    public record Result(Map<Integer, ProductResponseDTO> products, List<Integer> failed, boolean timedOut) {
+
+        public boolean isComplete() {
+            return failed.isEmpty();
+        }
+    }
+
+    private final ProductClient productClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final long deadlineMs;
+
+    private final Timer fanOutTimer;
+    private final Timer callTimer;
+    private final Counter failedCalls;
+    private final Counter timedOutCalls;
+    private final Counter partialResults;
+
+    public ProductFanOutExecutor(ProductClient productClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${product.fanout.batch-size:50}") int batchSize,
+                                 @Value("${product.fanout.max-concurrency:4}") int maxConcurrency,
+                                 @Value("${product.fanout.deadline-ms:3000}") long deadlineMs) {
+        this.productClient = productClient;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.deadlineMs = deadlineMs;
+
+        this.fanOutTimer = Timer.builder("product.fanout")
+                .description("End-to-end latency of a checkout product fan-out")
+                .tag("stage", "total")
+                .register(meterRegistry);
+        this.callTimer = Timer.builder("product.fanout")
+                .description("Latency of a single product-service batch call")
+                .tag("stage", "call")
+                .register(meterRegistry);
+        this.failedCalls = Counter.builder("product.fanout.failures")
+                .tag("reason", "error")
+                .register(meterRegistry);
+        this.timedOutCalls = Counter.builder("product.fanout.failures")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        this.partialResults = Counter.builder("product.fanout.partial")
+                .description("Fan-outs that returned without some of their batches")
+                .register(meterRegistry);
+    }
+
+    public Result fetchProducts(Collection<Integer> productIds) {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (ids.isEmpty()) {
+            return new Result(Collections.emptyMap(), List.of(), false);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Future<Map<Integer, ProductResponseDTO>>> futures = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            batches.add(batch);
+            futures.add(executor.submit(() -> fetchBatch(batch, permits, deadline)));
+        }
+
+        Map<Integer, ProductResponseDTO> result = new HashMap<>();
+        List<Integer> failed = new ArrayList<>();
+        boolean timedOut = false;
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Map<Integer, ProductResponseDTO>> future = futures.get(i);
+            if (interrupted) {
+                future.cancel(true);
+                failed.addAll(batches.get(i));
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            try {
+                result.putAll(future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timedOutCalls.increment();
+                failed.addAll(batches.get(i));
+                timedOut = true;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    timedOutCalls.increment();
+                    timedOut = true;
+                } else {
+                    failedCalls.increment();
+                    System.out.println("⚠️ Product batch lookup failed: " + e.getCause());
+                }
+                failed.addAll(batches.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                failed.addAll(batches.get(i));
+                interrupted = true;
+            }
+        }
+
+        fanOutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!failed.isEmpty()) {
+            partialResults.increment();
+            System.out.println("⚠️ Product fan-out incomplete: " + failed.size() + "/" + ids.size()
+                    + " id(s) unresolved" + (timedOut ? " (deadline " + deadlineMs + "ms)" : ""));
+        }
+        return new Result(result, failed, timedOut);
+    }
+
+    private Map<Integer, ProductResponseDTO> fetchBatch(List<Integer> batch, Semaphore permits, long deadline)
+            throws Exception {
+        if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No fan-out permit before deadline");
+        }
+        try {
+            return callTimer.recordCallable(() -> productClient.getProductsByIds(batch));
+        } finally {
+            permits.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
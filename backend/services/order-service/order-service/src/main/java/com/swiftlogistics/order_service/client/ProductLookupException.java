@@ -0,0 +1,34 @@
+package com.swiftlogistics.order_service.client;
+
+import java.util.List;
+
+/**
+ * Some products could not be looked up in product-service because their batch failed
+ * or missed the fan-out deadline. Retrying shortly may succeed, so checkout answers
+ * 503 (or 504 when the deadline was missed) with a Retry-After.
+ */
+public class ProductLookupException extends RuntimeException {
+
+    private final List<Integer> productIds;
+    private final boolean timedOut;
+    private final long retryAfterSeconds;
+
+    public ProductLookupException(List<Integer> productIds, boolean timedOut, long retryAfterSeconds) {
+        super((timedOut ? "Timed out" : "Failed") + " looking up productIds=" + productIds);
+        this.productIds = productIds;
+        this.timedOut = timedOut;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public List<Integer> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,14 +1,27 @@
 package com.swiftlogistics.order_service.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
 
+    // Resolves service ids (http://product-service/...) through discovery and the latency-aware balancer
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @LoadBalanced
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${product.fanout.connect-timeout-ms:500}") long connectTimeoutMs,
+                                     @Value("${product.fanout.call-timeout-ms:2000}") long callTimeoutMs) {
+        // Per-call timeouts so a slow product-service can't hold a checkout thread forever
+        return builder
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(callTimeoutMs))
+                .build();
     }
 }
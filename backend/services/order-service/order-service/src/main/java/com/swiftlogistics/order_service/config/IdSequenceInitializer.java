@@ -0,0 +1,39 @@
+package com.swiftlogistics.order_service.config;
+
+import com.swiftlogistics.order_service.model.OrderStatusHistory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * order_status_history used IDENTITY ids before it moved to a pooled sequence.
+ * Hibernate creates the new sequence starting at 1, so on an existing database
+ * it is moved past the highest id already in the table before any insert.
+ *
+ * Runs while the context is being built: after the entity manager factory (whose
+ * schema update creates the sequence), and before the web server and the Rabbit
+ * listeners start taking work.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void moveSequencePastExistingIds() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM order_status_history", Long.class);
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM order_status_history_seq", Long.class);
+        // The pooled optimizer hands out ids below the sequence value, hence the extra allocation
+        long floor = maxId + OrderStatusHistory.ID_ALLOCATION_SIZE;
+        if (lastValue < floor) {
+            jdbcTemplate.queryForObject("SELECT setval('order_status_history_seq', ?)", Long.class, floor);
+            System.out.println("🔢 Moved order_status_history_seq to " + floor);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.swiftlogistics.order_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.order_service.cache.*;
+import com.swiftlogistics.order_service.events.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class ProductCacheConfig {
+
+    // Must match the channel product-service publishes ProductChangedEvent to
+    public static final String PRODUCT_CHANGES_CHANNEL = "product-changes";
+
+    @Bean
+    public LocalProductCache localProductCache(@Value("${product.cache.max-size:10000}") int maxSize,
+                                               @Value("${product.cache.ttl-ms:60000}") long ttlMs,
+                                               MeterRegistry meterRegistry) {
+        return new LocalProductCache(maxSize, ttlMs, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.redis.enabled", havingValue = "true")
+    public RemoteProductCache redisProductCache(StringRedisTemplate redisTemplate,
+                                                ObjectMapper objectMapper,
+                                                @Value("${product.cache.redis.ttl-ms:300000}") long ttlMs) {
+        return new RedisProductCache(redisTemplate, objectMapper, ttlMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+    public RemoteProductCache noOpRemoteProductCache() {
+        return new NoOpRemoteProductCache();
+    }
+
+    // Drop cached prices as soon as product-service reports a change; the local tier needs
+    // this as much as Redis does, so it is on whenever either tier is
+    @Bean
+    @ConditionalOnExpression("${product.cache.max-size:10000} > 0 or ${product.cache.redis.enabled:false}")
+    public RedisMessageListenerContainer productChangesListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         ProductPriceCache productPriceCache,
+                                                                         ObjectMapper objectMapper) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                ProductChangedEvent event = objectMapper.readValue(message.getBody(), ProductChangedEvent.class);
+                productPriceCache.invalidate(event.getProductId());
+                System.out.println("🧹 Invalidated cached product: " + event);
+            } catch (Exception e) {
+                System.out.println("⚠️ Could not handle product change message: " + e.getMessage());
+            }
+        }, new ChannelTopic(PRODUCT_CHANGES_CHANNEL));
+        return container;
+    }
+}
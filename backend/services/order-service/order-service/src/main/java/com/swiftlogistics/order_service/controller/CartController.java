@@ -1,20 +1,35 @@
 package com.swiftlogistics.order_service.controller;
 
+import com.swiftlogistics.order_service.client.ProductLookupException;
+import com.swiftlogistics.order_service.dto.request.BulkStatusUpdateRequest;
 import com.swiftlogistics.order_service.dto.request.UpdateStatusRequest;
+import com.swiftlogistics.order_service.dto.response.BulkStatusUpdateDTO;
+import com.swiftlogistics.order_service.dto.response.StatusTransitionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.order_service.dto.response.OrderPageDTO;
+import com.swiftlogistics.order_service.dto.response.OrderWithHistoryDTO;
+import com.swiftlogistics.order_service.enums.OrderStatus;
 import com.swiftlogistics.order_service.model.Cart;
 import com.swiftlogistics.order_service.model.Order;
 import com.swiftlogistics.order_service.model.CartItem;
 import com.swiftlogistics.order_service.service.CartService;
+import com.swiftlogistics.order_service.service.InsufficientStockException;
+import com.swiftlogistics.order_service.service.OrderHistoryService;
 import com.swiftlogistics.order_service.service.OrderService;
+import com.swiftlogistics.order_service.service.UnpricedProductException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import jakarta.servlet.http.HttpServletRequest;
-import com.swiftlogistics.order_service.security.JwtUtil;
+import com.swiftlogistics.order_service.security.AuthenticatedUser;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/order")
@@ -23,15 +38,14 @@ public class CartController {
 
     private final CartService cartService;
     private final OrderService orderService;
-    private final JwtUtil jwtUtil;
+    private final OrderHistoryService orderHistoryService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/addtoCart")
-    public ResponseEntity<Cart> addItemToCart(@RequestBody Cart cart, HttpServletRequest request) {
-        String authorizationHeader = request.getHeader("Authorization");
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            String token = authorizationHeader.substring(7);
-            String userId = jwtUtil.extractUserId(token);
-            cart.setUserId(Integer.parseInt(userId));
+    public ResponseEntity<Cart> addItemToCart(@RequestBody Cart cart) {
+        Integer userId = AuthenticatedUser.currentUserId();
+        if (userId != null) {
+            cart.setUserId(userId);
 
             if (cart.getItems() != null) {
                 for (CartItem item : cart.getItems()) {
@@ -76,40 +90,107 @@ public class CartController {
             } else {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
+        } catch (ProductLookupException e) {
+            // product-service was slow or failing; nothing was reserved or saved, so a retry is safe
+            System.out.println("⚠️ Checkout of cart " + cartId + " deferred: " + e.getMessage());
+            return ResponseEntity.status(e.isTimedOut() ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (InsufficientStockException e) {
+            System.out.println("⚠️ Checkout of cart " + cartId + " rejected, out of stock: " + e.getProductIds());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (UnpricedProductException e) {
+            // The cart holds products that no longer exist or have no price
+            System.out.println("⚠️ Checkout of cart " + cartId + " rejected, no price for: " + e.getProductIds());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
         }
     }
 
-  @PutMapping("/updateStatus/{orderId}")
-public ResponseEntity<Order> updateOrderStatus(
-        @PathVariable int orderId,
-        @RequestBody UpdateStatusRequest request) {
-    try {
-        Order updatedOrder = orderService.updateOrderStatus(orderId, request.getStatus());
-        return ResponseEntity.ok(updatedOrder);
-    } catch (Exception e) {
-        e.printStackTrace();
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    // Duplicate and out-of-order callbacks are answered with DUPLICATE/STALE and change nothing
+    @PutMapping("/updateStatus/{orderId}")
+    public ResponseEntity<StatusTransitionDTO> updateOrderStatus(
+            @PathVariable int orderId,
+            @RequestBody UpdateStatusRequest request) {
+        OrderStatus next = OrderStatus.fromName(request.getStatus());
+        if (next == null) {
+            // Missing or not an OrderStatus value
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(orderService.updateOrderStatus(orderId, next));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Many (orderId, status) transitions in one transaction. Under /internal, so only
+    // callers with the service credential can move orders in bulk
+    @PutMapping("/internal/updateStatus/bulk")
+    public ResponseEntity<BulkStatusUpdateDTO> updateOrderStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        if (request.getUpdates() == null || request.getUpdates().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(orderService.updateOrderStatuses(request.getUpdates()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
     }
-}
 
     @GetMapping("/")
-    public ResponseEntity<List<Map<String, Object>>> getOrdersWithHistory(HttpServletRequest request) {
-        String authorizationHeader = request.getHeader("Authorization");
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+    public ResponseEntity<List<OrderWithHistoryDTO>> getOrdersWithHistory() {
+        Integer userId = AuthenticatedUser.currentUserId();
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        String token = authorizationHeader.substring(7);
-        int userId = Integer.parseInt(jwtUtil.extractUserId(token));
 
-        List<Map<String, Object>> ordersWithHistory = orderService.getOrdersWithStatusHistory(userId);
+        List<OrderWithHistoryDTO> ordersWithHistory = orderHistoryService.getOrdersWithStatusHistory(userId);
         if (ordersWithHistory.isEmpty()) return ResponseEntity.noContent().build();
         return ResponseEntity.ok(ordersWithHistory);
     }
 
+    // Keyset-paginated history: pass the returned nextCursor to fetch the following page
+    @GetMapping("/history")
+    public ResponseEntity<OrderPageDTO> getOrderHistoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) OrderStatus status) {
+        Integer userId = AuthenticatedUser.currentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(orderHistoryService.getOrderPage(userId, status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
+    // Streams the full history as NDJSON, one order per line, without materializing it in memory
+    @GetMapping(value = "/history/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamOrderHistory(
+            @RequestParam(required = false) OrderStatus status) {
+        Integer userId = AuthenticatedUser.currentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
 
+        StreamingResponseBody body = out -> orderHistoryService.streamOrdersWithStatusHistory(userId, status, order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
 
 }
\ No newline at end of file
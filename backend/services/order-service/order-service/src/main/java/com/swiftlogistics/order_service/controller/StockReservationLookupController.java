@@ -0,0 +1,36 @@
+package com.swiftlogistics.order_service.controller;
+
+import com.swiftlogistics.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lets product-service ask which of its stock reservations belong to an existing order
+@RestController
+@RequestMapping("/api/order/internal/stock-reservations")
+@RequiredArgsConstructor
+public class StockReservationLookupController {
+
+    private static final int MAX_IDS = 1000;
+
+    private final OrderRepository orderRepository;
+
+    // reservationId -> orderId for the reservations that have an order; others are absent
+    @PostMapping("/orders")
+    public ResponseEntity<Map<String, Integer>> ordersFor(@RequestBody List<String> reservationIds) {
+        if (reservationIds == null || reservationIds.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Integer> orders = new HashMap<>();
+        if (!reservationIds.isEmpty()) {
+            for (OrderRepository.ReservationOrderView view : orderRepository.findByStockReservationIdIn(reservationIds)) {
+                orders.put(view.getReservationId(), view.getOrderId());
+            }
+        }
+        return ResponseEntity.ok(orders);
+    }
+}
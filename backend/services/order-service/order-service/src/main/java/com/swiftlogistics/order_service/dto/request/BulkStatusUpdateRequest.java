@@ -0,0 +1,19 @@
+package com.swiftlogistics.order_service.dto.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkStatusUpdateRequest {
+    private List<StatusUpdate> updates;
+
+    @Getter
+    @Setter
+    public static class StatusUpdate {
+        private Integer orderId;
+        private String status;
+    }
+}
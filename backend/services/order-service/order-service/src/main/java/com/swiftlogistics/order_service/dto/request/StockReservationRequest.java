@@ -0,0 +1,24 @@
+package com.swiftlogistics.order_service.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Body of product-service's POST /api/product/stock/reservations
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+    private String reservationId;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int productId;
+        private int quantity;
+    }
+}
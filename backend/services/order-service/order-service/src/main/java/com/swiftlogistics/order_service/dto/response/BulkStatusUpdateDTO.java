@@ -0,0 +1,22 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateDTO {
+    private int updated;
+    // Duplicate or out-of-order transitions that were ignored
+    private int skipped;
+    // Order ids in the request that do not exist; nothing was written for them
+    private List<Integer> notFound;
+    // Order ids whose requested status is not a known OrderStatus
+    private List<Integer> invalid;
+    // Order ids changed concurrently by another update; safe to resend
+    private List<Integer> conflicts;
+}
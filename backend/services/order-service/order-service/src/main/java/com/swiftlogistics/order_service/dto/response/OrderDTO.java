@@ -0,0 +1,22 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import com.swiftlogistics.order_service.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDTO {
+    private int orderId;
+    private int userId;
+    private double totalAmount;
+    private LocalDateTime createdAt;
+    private OrderStatus orderStatus;
+    private String assignedDriver;
+    private List<OrderItemDTO> items;
+}
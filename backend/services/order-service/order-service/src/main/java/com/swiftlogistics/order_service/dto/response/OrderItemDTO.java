@@ -0,0 +1,17 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import com.swiftlogistics.order_service.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDTO {
+    private int itemId;
+    private int productId;
+    private int quantity;
+    private double unitPrice;
+    private OrderStatus orderStatus;
+}
@@ -0,0 +1,16 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDTO {
+    private List<OrderWithHistoryDTO> orders;
+    // Opaque keyset cursor for the next page, null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusHistoryDTO {
+    private String status;
+    private LocalDateTime updatedAt;
+}
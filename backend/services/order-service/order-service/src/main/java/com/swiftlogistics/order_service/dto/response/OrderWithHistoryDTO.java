@@ -0,0 +1,15 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderWithHistoryDTO {
+    private OrderDTO order;
+    private List<OrderStatusHistoryDTO> statusHistory;
+}
@@ -0,0 +1,18 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import com.swiftlogistics.order_service.enums.OrderStatus;
+import com.swiftlogistics.order_service.enums.TransitionOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionDTO {
+    private int orderId;
+    private OrderStatus previousStatus;
+    // Status after the call; equals previousStatus unless the outcome is APPLIED
+    private OrderStatus status;
+    private TransitionOutcome outcome;
+}
@@ -0,0 +1,17 @@
+package com.swiftlogistics.order_service.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class StockReservationDTO {
+    private String reservationId;
+    private String status;
+    private LocalDateTime expiresAt;
+    // Products that were short when the reservation was refused
+    private List<Integer> insufficient;
+}
@@ -1,10 +1,46 @@
 package com.swiftlogistics.order_service.enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED,
     PROCESSED_BY_CMS,
     ROUTE_OPTIMIZED,
     PACKAGE_RECEIVED_WMS,
     DELIVERED,
-    FAILED
+    FAILED;
+
+    // Status only moves forward through the workflow, in declaration order. A step may be
+    // skipped (its callback lost), but a callback for a step the order has already moved
+    // past is stale and ignored. FAILED is reachable until the order is delivered.
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(CREATED, EnumSet.of(PROCESSED_BY_CMS, ROUTE_OPTIMIZED, PACKAGE_RECEIVED_WMS, DELIVERED, FAILED));
+        TRANSITIONS.put(PROCESSED_BY_CMS, EnumSet.of(ROUTE_OPTIMIZED, PACKAGE_RECEIVED_WMS, DELIVERED, FAILED));
+        TRANSITIONS.put(ROUTE_OPTIMIZED, EnumSet.of(PACKAGE_RECEIVED_WMS, DELIVERED, FAILED));
+        TRANSITIONS.put(PACKAGE_RECEIVED_WMS, EnumSet.of(DELIVERED, FAILED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(FAILED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    // Null when the name is missing or not a status, so callers can reject it as bad input
+    public static OrderStatus fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (OrderStatus status : values()) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
 }
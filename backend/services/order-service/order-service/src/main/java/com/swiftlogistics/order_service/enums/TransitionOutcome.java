@@ -0,0 +1,12 @@
+package com.swiftlogistics.order_service.enums;
+
+public enum TransitionOutcome {
+    // Status changed and history recorded
+    APPLIED,
+    // Order already had this status (repeated callback), nothing written
+    DUPLICATE,
+    // Not allowed from the current status (out-of-order or late callback), nothing written
+    STALE,
+    // Another update changed the status concurrently and retries ran out, nothing written
+    CONFLICT
+}
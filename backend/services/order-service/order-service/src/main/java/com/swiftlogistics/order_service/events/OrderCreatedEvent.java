@@ -4,6 +4,8 @@ public class OrderCreatedEvent {
     private Long orderId;
     private String customerName;
     private String status;
+    // The order's stock reservation in product-service, released by id if the order fails
+    private String reservationId;
 
     public OrderCreatedEvent() {}
 
@@ -13,6 +15,11 @@ public class OrderCreatedEvent {
         this.status = status;
     }
 
+    public OrderCreatedEvent(Long orderId, String customerName, String status, String reservationId) {
+        this(orderId, customerName, status);
+        this.reservationId = reservationId;
+    }
+
     public Long getOrderId() { return orderId; }
     public void setOrderId(Long orderId) { this.orderId = orderId; }
 
@@ -22,12 +29,16 @@ public class OrderCreatedEvent {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    public String getReservationId() { return reservationId; }
+    public void setReservationId(String reservationId) { this.reservationId = reservationId; }
+
     @Override
     public String toString() {
         return "OrderCreatedEvent{" +
                 "orderId=" + orderId +
                 ", customerName='" + customerName + '\'' +
                 ", status='" + status + '\'' +
+                ", reservationId='" + reservationId + '\'' +
                 '}';
     }
 }
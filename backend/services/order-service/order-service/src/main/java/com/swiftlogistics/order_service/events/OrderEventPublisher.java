@@ -1,22 +1,192 @@
 package com.swiftlogistics.order_service.events;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.swiftlogistics.order_service.config.RabbitMQConfig;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes order events in small batches. Callers enqueue and get a future that
+ * completes with the broker's publisher confirm. A single sender thread drains the
+ * queue, sends each batch on one pooled channel and lets confirms arrive asynchronously.
+ * At most {@code order-events.publisher.max-in-flight} messages may be unconfirmed;
+ * beyond that callers are rejected after {@code enqueue-timeout-ms} (backpressure).
+ */
 @Service
 public class OrderEventPublisher {
 
-    @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private record PendingPublish(OrderCreatedEvent event, String messageId,
+                                  CompletableFuture<CorrelationData.Confirm> result) {}
+
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long enqueueTimeoutMs;
+
+    private final Semaphore inFlight;
+    private final BlockingQueue<PendingPublish> queue;
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private volatile boolean running = true;
+    private Thread sender;
+
+    private final Counter published;
+    private final Counter nacked;
+    private final Counter rejected;
+    private final Timer confirmLatency;
+    private final DistributionSummary batchSizes;
+
+    public OrderEventPublisher(RabbitTemplate rabbitTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${order-events.publisher.batch-size:50}") int batchSize,
+                               @Value("${order-events.publisher.linger-ms:5}") long lingerMs,
+                               @Value("${order-events.publisher.max-in-flight:1000}") int maxInFlight,
+                               @Value("${order-events.publisher.enqueue-timeout-ms:100}") long enqueueTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.queue = new LinkedBlockingQueue<>(maxInFlight);
+
+        this.published = meterRegistry.counter("order.events.published");
+        this.nacked = meterRegistry.counter("order.events.nacked");
+        this.rejected = meterRegistry.counter("order.events.rejected");
+        this.confirmLatency = Timer.builder("order.events.confirm.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("order.events.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("order.events.in.flight", inFlightCount);
+    }
+
+    @PostConstruct
+    public void start() {
+        sender = Thread.ofPlatform().name("order-event-publisher").daemon().start(this::sendLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    // Completes with the broker confirm (ack or nack); completes exceptionally if rejected or the send fails
+    public CompletableFuture<CorrelationData.Confirm> publishOrderCreated(OrderCreatedEvent event, String messageId) {
+        CompletableFuture<CorrelationData.Confirm> result = new CompletableFuture<>();
+        try {
+            if (!inFlight.tryAcquire(enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                result.completeExceptionally(new RejectedExecutionException("Too many unconfirmed order events"));
+                return result;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        inFlightCount.incrementAndGet();
+        queue.add(new PendingPublish(event, messageId, result));
+        return result;
+    }
+
+    private void sendLoop() {
+        List<PendingPublish> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingPublish first = queue.take();
+                batch.add(first);
+                // Linger briefly so bursts coalesce into one batch per channel checkout
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    PendingPublish next = queue.poll(lingerDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        PendingPublish leftover;
+        while ((leftover = queue.poll()) != null) {
+            complete(leftover, null, new IllegalStateException("Publisher stopped"));
+        }
+    }
+
+    private void sendBatch(List<PendingPublish> batch) {
+        batchSizes.record(batch.size());
+        List<PendingPublish> sent = new ArrayList<>(batch.size());
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish pending : batch) {
+                    long sentAt = System.nanoTime();
+                    CorrelationData correlationData = new CorrelationData(pending.messageId());
+                    operations.convertAndSend(
+                            RabbitMQConfig.EXCHANGE,
+                            RabbitMQConfig.ROUTING_KEY,
+                            pending.event(),  // sent as JSON
+                            message -> {
+                                message.getMessageProperties().setMessageId(pending.messageId());
+                                // Lets consumers measure queue lag
+                                message.getMessageProperties().setTimestamp(new Date());
+                                return message;
+                            },
+                            correlationData
+                    );
+                    sent.add(pending);
+                    correlationData.getFuture().whenComplete((confirm, error) -> {
+                        confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+                        complete(pending, confirm, error);
+                    });
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to publish order event batch: " + e.getMessage());
+            for (PendingPublish pending : batch) {
+                if (!sent.contains(pending)) {
+                    complete(pending, null, e);
+                }
+            }
+        }
+    }
 
-    public void publishOrderCreated(OrderCreatedEvent event) {
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGE,
-                RabbitMQConfig.ROUTING_KEY,
-                event  // now sent as JSON
-        );
-        System.out.println("✅ Published OrderCreatedEvent as JSON: " + event);
+    private void complete(PendingPublish pending, CorrelationData.Confirm confirm, Throwable error) {
+        boolean completed = error != null
+                ? pending.result().completeExceptionally(error)
+                : pending.result().complete(confirm);
+        if (!completed) {
+            return;
+        }
+        inFlight.release();
+        inFlightCount.decrementAndGet();
+        if (error == null) {
+            if (confirm.isAck()) {
+                published.increment();
+            } else {
+                nacked.increment();
+            }
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.swiftlogistics.order_service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.order_service.model.OutboxEvent;
+import com.swiftlogistics.order_service.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox to RabbitMQ in batches. All messages of a batch are handed to the
+ * pipelined OrderEventPublisher first, then their publisher confirms are awaited;
+ * only acked rows are marked as sent, everything else is retried on the next run
+ * (delivery is at-least-once).
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    public static final String ORDER_CREATED = "OrderCreated";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    @Transactional
+    public void relay() {
+        List<OutboxEvent> batch = outboxEventRepository.findBySentAtIsNullAndEventTypeOrderByIdAsc(ORDER_CREATED, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<CorrelationData.Confirm>> confirms = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            outboxEvent.setAttempts(outboxEvent.getAttempts() + 1);
+            try {
+                OrderCreatedEvent event = objectMapper.readValue(outboxEvent.getPayload(), OrderCreatedEvent.class);
+                confirms.add(orderEventPublisher.publishOrderCreated(event, "outbox-" + outboxEvent.getId()));
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to relay outbox event " + outboxEvent.getId() + ": " + e.getMessage());
+                confirms.add(null);
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<CorrelationData.Confirm> confirmFuture = confirms.get(i);
+            if (confirmFuture == null) {
+                continue;
+            }
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = confirmFuture.get(remaining, TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    batch.get(i).setSentAt(now);
+                    sent++;
+                } else {
+                    System.out.println("⚠️ Broker nacked outbox event " + batch.get(i).getId() + ": " + confirm.getReason());
+                }
+            } catch (Exception e) {
+                System.out.println("⚠️ No confirm for outbox event " + batch.get(i).getId() + ": " + e);
+            }
+        }
+        outboxEventRepository.saveAll(batch);
+        System.out.println("📤 Relayed " + sent + "/" + batch.size() + " outbox events");
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeSent() {
+        outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+}
@@ -0,0 +1,27 @@
+package com.swiftlogistics.order_service.events;
+
+public class ProductChangedEvent {
+    private Integer productId;
+    private String changeType;
+
+    public ProductChangedEvent() {}
+
+    public ProductChangedEvent(Integer productId, String changeType) {
+        this.productId = productId;
+        this.changeType = changeType;
+    }
+
+    public Integer getProductId() { return productId; }
+    public void setProductId(Integer productId) { this.productId = productId; }
+
+    public String getChangeType() { return changeType; }
+    public void setChangeType(String changeType) { this.changeType = changeType; }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "productId=" + productId +
+                ", changeType='" + changeType + '\'' +
+                '}';
+    }
+}
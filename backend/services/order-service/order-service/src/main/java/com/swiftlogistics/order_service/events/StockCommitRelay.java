@@ -0,0 +1,113 @@
+package com.swiftlogistics.order_service.events;
+
+import com.swiftlogistics.order_service.client.ProductClient;
+import com.swiftlogistics.order_service.dto.response.StatusTransitionDTO;
+import com.swiftlogistics.order_service.enums.OrderStatus;
+import com.swiftlogistics.order_service.model.OutboxEvent;
+import com.swiftlogistics.order_service.repository.OutboxEventRepository;
+import com.swiftlogistics.order_service.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Commits checkout's stock reservations in product-service once their order has been
+ * written. The STOCK_COMMIT outbox row is saved in the order's transaction, so a
+ * reservation is only ever committed for an order that exists; until then it stays HELD
+ * and product-service asks order-service before expiring it. Committing is idempotent,
+ * so rows are read without locks and no transaction is held across the HTTP call.
+ *
+ * A reservation that was released (e.g. the orchestrator compensated the order before
+ * the commit landed) or expired can't be committed any more. The order then has no stock
+ * behind it, so it is marked FAILED and counted in {@code stock.commit.refused}.
+ */
+@Component
+public class StockCommitRelay {
+
+    public static final String STOCK_COMMIT = "StockCommit";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ProductClient productClient;
+    private final OrderService orderService;
+    private final Counter refusedCommits;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    public StockCommitRelay(OutboxEventRepository outboxEventRepository,
+                            ProductClient productClient,
+                            OrderService orderService,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.productClient = productClient;
+        this.orderService = orderService;
+        this.refusedCommits = Counter.builder("stock.commit.refused")
+                .description("Orders failed because their stock reservation could no longer be committed")
+                .register(meterRegistry);
+    }
+
+    // aggregateId is the order, payload the reservationId
+    public static OutboxEvent event(int orderId, String reservationId) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(orderId);
+        outboxEvent.setEventType(STOCK_COMMIT);
+        outboxEvent.setPayload(reservationId);
+        return outboxEvent;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        List<OutboxEvent> batch = outboxEventRepository.findPending(STOCK_COMMIT, Limit.of(batchSize));
+        int committed = 0;
+        for (OutboxEvent outboxEvent : batch) {
+            if (commit(outboxEvent)) {
+                committed++;
+            }
+        }
+        if (!batch.isEmpty()) {
+            System.out.println("📦 Committed " + committed + "/" + batch.size() + " stock reservation(s)");
+        }
+    }
+
+    private boolean commit(OutboxEvent outboxEvent) {
+        String reservationId = outboxEvent.getPayload();
+        int orderId = outboxEvent.getAggregateId();
+        try {
+            productClient.commitReservation(reservationId, orderId);
+            outboxEventRepository.markSent(outboxEvent.getId(), LocalDateTime.now());
+            return true;
+        } catch (HttpClientErrorException.Conflict | HttpClientErrorException.NotFound e) {
+            // Released or unknown: final, retrying can't bring the stock back
+            failOrder(outboxEvent, reservationId, e.getStatusCode().value());
+            return false;
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Could not commit stock reservation " + reservationId + " for order " + orderId
+                    + ", will retry: " + e.getMessage());
+            outboxEventRepository.recordAttempt(outboxEvent.getId());
+            return false;
+        }
+    }
+
+    // If the status can't be written the row stays pending, and the next run is refused again and retries this
+    private void failOrder(OutboxEvent outboxEvent, String reservationId, int status) {
+        int orderId = outboxEvent.getAggregateId();
+        try {
+            StatusTransitionDTO transition = orderService.updateOrderStatus(orderId, OrderStatus.FAILED);
+            outboxEventRepository.markSent(outboxEvent.getId(), LocalDateTime.now());
+            refusedCommits.increment();
+            System.out.println("❌ Stock reservation " + reservationId + " for order " + orderId + " can no longer be committed ("
+                    + status + "), order " + transition.getOutcome() + " -> " + transition.getStatus());
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Could not fail order " + orderId + " after its stock commit was refused, will retry: "
+                    + e.getMessage());
+            outboxEventRepository.recordAttempt(outboxEvent.getId());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.swiftlogistics.order_service.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @NoArgsConstructor
@@ -34,6 +35,11 @@ public class Order{
 
     private String assignedDriver;
 
+    // product-service's stock reservation for this order; the order row decides whether it is kept
+    @JsonIgnore
+    @Column(name = "stock_reservation_id", length = 64, unique = true)
+    private String stockReservationId;
+
     public void setOrderItems(List<OrderItem> items) {
         this.items = items;
     }
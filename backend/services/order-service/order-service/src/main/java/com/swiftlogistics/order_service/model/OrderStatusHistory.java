@@ -12,8 +12,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class OrderStatusHistory {
 
+    // Ids reserved per sequence call; lets Hibernate batch inserts, which IDENTITY prevents
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_status_history_seq")
+    @SequenceGenerator(name = "order_status_history_seq", sequenceName = "order_status_history_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private Integer orderId;
@@ -22,4 +27,9 @@ public class OrderStatusHistory {
 
     @Column(name = "updated_at", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public OrderStatusHistory(Integer orderId, String status) {
+        this.orderId = orderId;
+        this.status = status;
+    }
 }
@@ -0,0 +1,33 @@
+package com.swiftlogistics.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Event written in the same transaction as the business change, relayed to RabbitMQ afterwards
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_unsent", columnList = "sent_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer aggregateId;
+
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    private int attempts;
+}
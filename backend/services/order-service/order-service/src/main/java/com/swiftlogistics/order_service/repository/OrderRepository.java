@@ -1,9 +1,68 @@
 package com.swiftlogistics.order_service.repository;
 
+import com.swiftlogistics.order_service.enums.OrderStatus;
 import com.swiftlogistics.order_service.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByUserId(int userId);
+
+    interface OrderStatusView {
+        int getOrderId();
+
+        OrderStatus getOrderStatus();
+    }
+
+    interface ReservationOrderView {
+        String getReservationId();
+
+        int getOrderId();
+    }
+
+    @Query("select o.stockReservationId as reservationId, o.orderId as orderId from Order o "
+            + "where o.stockReservationId in :reservationIds")
+    List<ReservationOrderView> findByStockReservationIdIn(@Param("reservationIds") Collection<String> reservationIds);
+
+    @Query("select o.orderStatus from Order o where o.orderId = :orderId")
+    Optional<OrderStatus> findStatusByOrderId(@Param("orderId") int orderId);
+
+    @Query("select o.orderId as orderId, o.orderStatus as orderStatus from Order o where o.orderId in :orderIds")
+    List<OrderStatusView> findStatusesByOrderIdIn(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Compare-and-set: only succeeds if nobody changed the status since it was read
+    @Modifying
+    @Query("update Order o set o.orderStatus = :next where o.orderId = :orderId and o.orderStatus = :expected")
+    int compareAndSetStatus(@Param("orderId") int orderId,
+                            @Param("expected") OrderStatus expected,
+                            @Param("next") OrderStatus next);
+
+    // Orders and their items in a single query, so items are not lazily loaded per order
+    @Query("select distinct o from Order o left join fetch o.items where o.userId = :userId order by o.createdAt desc")
+    List<Order> findByUserIdWithItems(@Param("userId") int userId);
+
+    // Keyset pagination over (createdAt, orderId), newest first
+    Window<Order> findByUserIdOrderByCreatedAtDescOrderIdDesc(int userId, ScrollPosition position, Limit limit);
+
+    Window<Order> findByUserIdAndOrderStatusOrderByCreatedAtDescOrderIdDesc(int userId, OrderStatus orderStatus,
+                                                                           ScrollPosition position, Limit limit);
+
+    // Server-side cursor for streaming; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Order> streamByUserIdOrderByCreatedAtDescOrderIdDesc(int userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Order> streamByUserIdAndOrderStatusOrderByCreatedAtDescOrderIdDesc(int userId, OrderStatus orderStatus);
 }
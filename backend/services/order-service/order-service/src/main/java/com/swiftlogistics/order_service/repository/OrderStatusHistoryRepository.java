@@ -3,9 +3,12 @@ package com.swiftlogistics.order_service.repository;
 import com.swiftlogistics.order_service.model.OrderStatusHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusHistory, Long> {
     List<OrderStatusHistory> findByOrderId(int orderId);
+
+    List<OrderStatusHistory> findByOrderIdInOrderByUpdatedAtAsc(Collection<Integer> orderIds);
 }
@@ -0,0 +1,42 @@
+package com.swiftlogistics.order_service.repository;
+
+import com.swiftlogistics.order_service.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // FOR UPDATE SKIP LOCKED, so several relay instances never pick the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxEvent> findBySentAtIsNullAndEventTypeOrderByIdAsc(String eventType, Limit limit);
+
+    // Unlocked read for relays whose work is idempotent and must not hold row locks across a remote call
+    @Query("select e from OutboxEvent e where e.sentAt is null and e.eventType = :eventType order by e.id")
+    List<OutboxEvent> findPending(@Param("eventType") String eventType, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.sentAt = :sentAt, e.attempts = e.attempts + 1 where e.id = :id")
+    int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id = :id")
+    int recordAttempt(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,26 @@
+package com.swiftlogistics.order_service.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// The caller's userId as set by JwtAuthenticationFilter, so controllers never parse the token again
+public final class AuthenticatedUser {
+
+    private AuthenticatedUser() {
+    }
+
+    // null when the request carried no valid token
+    public static Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+                || !(authentication.getPrincipal() instanceof String userId)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
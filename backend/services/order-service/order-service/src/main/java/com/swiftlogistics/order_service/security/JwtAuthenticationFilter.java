@@ -1,26 +1,44 @@
 package com.swiftlogistics.order_service.security;
 
-import io.jsonwebtoken.Claims;
+import com.swiftlogistics.common.security.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Collections;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Set by the api-gateway after it has verified the token at the edge
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String GATEWAY_SECRET_HEADER = "X-Gateway-Secret";
+    // Sent by product-service on the internal reservation lookup
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+    public static final String SERVICE_ROLE = "SERVICE";
+
     private final JwtUtil jwtUtil;
+    private final byte[] gatewaySecret;
+    private final byte[] serviceSecret;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   @Value("${gateway.identity.secret:}") String gatewaySecret,
+                                   @Value("${internal.service.secret:}") String serviceSecret) {
         this.jwtUtil = jwtUtil;
+        this.gatewaySecret = gatewaySecret.getBytes(StandardCharsets.UTF_8);
+        this.serviceSecret = serviceSecret.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -36,12 +54,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             token = authHeader.substring(7);
         }
 
-        if (token != null && jwtUtil.validateToken(token)) {
-            Claims claims = jwtUtil.extractClaims(token);
-            String username = claims.getSubject();
+        if (isServiceCall(request)) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    "service", null, List.of(new SimpleGrantedAuthority("ROLE_" + SERVICE_ROLE)));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            filterChain.doFilter(request, response);
+            return;
+        }
 
+        // Requests through the api-gateway arrive already verified; anything else is verified
+        // here (once per token while cached). Controllers read the userId principal through
+        // AuthenticatedUser instead of parsing the token again.
+        String userId = gatewayUserId(request);
+        if (userId == null && token != null) {
+            userId = jwtUtil.verifiedUserId(token);
+        }
+        if (userId != null) {
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList());
+                    new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList());
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -49,4 +79,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // X-User-Id is only believed when it comes with the gateway's shared secret
+    private String gatewayUserId(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        String secret = request.getHeader(GATEWAY_SECRET_HEADER);
+        if (userId == null || secret == null || gatewaySecret.length == 0) {
+            return null;
+        }
+        return MessageDigest.isEqual(gatewaySecret, secret.getBytes(StandardCharsets.UTF_8)) ? userId : null;
+    }
+
+    private boolean isServiceCall(HttpServletRequest request) {
+        String token = request.getHeader(SERVICE_TOKEN_HEADER);
+        return token != null && serviceSecret.length > 0
+                && MessageDigest.isEqual(serviceSecret, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,22 @@
+package com.swiftlogistics.order_service.service;
+
+import java.util.List;
+
+/**
+ * product-service could not reserve every line of the order. Nothing was reserved or
+ * saved; checkout answers 409, since retrying the same cart can't succeed until the
+ * stock changes.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<Integer> productIds;
+
+    public InsufficientStockException(List<Integer> productIds) {
+        super("Insufficient stock for productIds=" + productIds + ", order not placed");
+        this.productIds = productIds;
+    }
+
+    public List<Integer> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,190 @@
+package com.swiftlogistics.order_service.service;
+
+import com.swiftlogistics.order_service.dto.response.*;
+import com.swiftlogistics.order_service.enums.OrderStatus;
+import com.swiftlogistics.order_service.model.Order;
+import com.swiftlogistics.order_service.model.OrderItem;
+import com.swiftlogistics.order_service.model.OrderStatusHistory;
+import com.swiftlogistics.order_service.repository.OrderItemRepository;
+import com.swiftlogistics.order_service.repository.OrderRepository;
+import com.swiftlogistics.order_service.repository.OrderStatusHistoryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read side of a user's order history: full list, keyset pages and a streamed export.
+ * Items and status history are always loaded with IN-queries per batch of orders.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderHistoryService {
+
+    // Keeps IN-lists well under the Postgres bind parameter limit
+    private static final int HISTORY_BATCH_SIZE = 1000;
+    // Rows buffered from the cursor before their items/history are loaded and written out
+    private static final int STREAM_CHUNK_SIZE = 200;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    private final EntityManager entityManager;
+
+    // Batched read path: one query for orders + items, one IN-query per chunk of history
+    @Transactional(readOnly = true)
+    public List<OrderWithHistoryDTO> getOrdersWithStatusHistory(int userId) {
+        List<Order> orders = orderRepository.findByUserIdWithItems(userId);
+        if (orders.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        for (Order order : orders) {
+            itemsByOrderId.put(order.getOrderId(), order.getItems());
+        }
+        return assemble(orders, itemsByOrderId);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageDTO getOrderPage(int userId, OrderStatus status, String cursor, int size) {
+        ScrollPosition position = cursor == null || cursor.isBlank() ? ScrollPosition.keyset() : decodeCursor(cursor);
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        Window<Order> window = status == null
+                ? orderRepository.findByUserIdOrderByCreatedAtDescOrderIdDesc(userId, position, limit)
+                : orderRepository.findByUserIdAndOrderStatusOrderByCreatedAtDescOrderIdDesc(userId, status, position, limit);
+
+        List<Order> orders = window.getContent();
+        String nextCursor = window.hasNext() && !orders.isEmpty()
+                ? encodeCursor(orders.get(orders.size() - 1))
+                : null;
+        return new OrderPageDTO(assemble(orders, loadItems(orders)), nextCursor);
+    }
+
+    // Walks a JDBC cursor in chunks so memory stays bounded regardless of order count
+    @Transactional(readOnly = true)
+    public void streamOrdersWithStatusHistory(int userId, OrderStatus status, Consumer<OrderWithHistoryDTO> sink) {
+        try (Stream<Order> stream = status == null
+                ? orderRepository.streamByUserIdOrderByCreatedAtDescOrderIdDesc(userId)
+                : orderRepository.streamByUserIdAndOrderStatusOrderByCreatedAtDescOrderIdDesc(userId, status)) {
+
+            List<Order> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            Iterator<Order> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    writeChunk(chunk, sink);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, sink);
+            }
+        }
+    }
+
+    private void writeChunk(List<Order> chunk, Consumer<OrderWithHistoryDTO> sink) {
+        assemble(chunk, loadItems(chunk)).forEach(sink);
+        chunk.clear();
+        // Detach everything loaded so far; otherwise the persistence context grows with the cursor
+        entityManager.clear();
+    }
+
+    private Map<Integer, List<OrderItem>> loadItems(List<Order> orders) {
+        Map<Integer, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        List<Integer> orderIds = orderIds(orders);
+        for (int from = 0; from < orderIds.size(); from += HISTORY_BATCH_SIZE) {
+            List<Integer> batch = orderIds.subList(from, Math.min(from + HISTORY_BATCH_SIZE, orderIds.size()));
+            for (OrderItem item : orderItemRepository.findByOrder_OrderIdIn(batch)) {
+                itemsByOrderId.computeIfAbsent(item.getOrder().getOrderId(), id -> new ArrayList<>()).add(item);
+            }
+        }
+        return itemsByOrderId;
+    }
+
+    private List<OrderWithHistoryDTO> assemble(List<Order> orders, Map<Integer, List<OrderItem>> itemsByOrderId) {
+        if (orders.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, List<OrderStatusHistoryDTO>> historyByOrderId = new HashMap<>();
+        List<Integer> orderIds = orderIds(orders);
+        for (int from = 0; from < orderIds.size(); from += HISTORY_BATCH_SIZE) {
+            List<Integer> batch = orderIds.subList(from, Math.min(from + HISTORY_BATCH_SIZE, orderIds.size()));
+            for (OrderStatusHistory history : orderStatusHistoryRepository.findByOrderIdInOrderByUpdatedAtAsc(batch)) {
+                historyByOrderId.computeIfAbsent(history.getOrderId(), id -> new ArrayList<>())
+                        .add(new OrderStatusHistoryDTO(history.getStatus(), history.getUpdatedAt()));
+            }
+        }
+
+        List<OrderWithHistoryDTO> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            result.add(new OrderWithHistoryDTO(
+                    toOrderDTO(order, itemsByOrderId.get(order.getOrderId())),
+                    historyByOrderId.getOrDefault(order.getOrderId(), Collections.emptyList())
+            ));
+        }
+        return result;
+    }
+
+    private List<Integer> orderIds(List<Order> orders) {
+        List<Integer> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getOrderId());
+        }
+        return orderIds;
+    }
+
+    private OrderDTO toOrderDTO(Order order, List<OrderItem> orderItems) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        if (orderItems != null) {
+            for (OrderItem item : orderItems) {
+                items.add(new OrderItemDTO(
+                        item.getItemId(),
+                        item.getProductId(),
+                        item.getQuantity(),
+                        item.getUnitPrice(),
+                        item.getOrderStatus()
+                ));
+            }
+        }
+        return new OrderDTO(
+                order.getOrderId(),
+                order.getUserId(),
+                order.getTotalAmount(),
+                order.getCreatedAt(),
+                order.getOrderStatus(),
+                order.getAssignedDriver(),
+                items
+        );
+    }
+
+    // Cursor = base64url("<createdAt>|<orderId>") of the last row on the page
+    private String encodeCursor(Order last) {
+        String raw = last.getCreatedAt() + "|" + last.getOrderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ScrollPosition decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("createdAt", LocalDateTime.parse(raw.substring(0, sep)));
+            keys.put("orderId", Integer.parseInt(raw.substring(sep + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -6,12 +6,25 @@ import com.swiftlogistics.order_service.repository.CartRepository;
 import com.swiftlogistics.order_service.repository.CartItemRepository;
 import com.swiftlogistics.order_service.repository.OrderRepository;
 import com.swiftlogistics.order_service.repository.OrderStatusHistoryRepository;
+import com.swiftlogistics.order_service.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.swiftlogistics.order_service.cache.ProductPriceCache;
+import com.swiftlogistics.order_service.client.ProductClient;
+import com.swiftlogistics.order_service.dto.request.BulkStatusUpdateRequest;
+import com.swiftlogistics.order_service.dto.response.BulkStatusUpdateDTO;
 import com.swiftlogistics.order_service.dto.response.ProductResponseDTO;
-import com.swiftlogistics.order_service.events.OrderEventPublisher;
+import com.swiftlogistics.order_service.dto.response.StatusTransitionDTO;
+import com.swiftlogistics.order_service.enums.TransitionOutcome;
+import com.swiftlogistics.order_service.events.OutboxRelay;
+import com.swiftlogistics.order_service.events.StockCommitRelay;
 import com.swiftlogistics.order_service.events.OrderCreatedEvent;
 
 import java.util.*;
@@ -21,14 +34,28 @@ import java.util.*;
 public class OrderService {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private ProductPriceCache productPriceCache;
     @Autowired
     private CartItemRepository cartItemRepository;
     @Autowired
-    private OrderEventPublisher orderEventPublisher;
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     @Autowired
     private OrderStatusHistoryRepository orderStatusHistoryRepository;
+    @Autowired
+    private ProductClient productClient;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
+    private static final int BULK_UPDATE_CHUNK_SIZE = 500;
+    private static final int MAX_TRANSITION_ATTEMPTS = 3;
 
     private final CartRepository cartRepository;
     private final OrderRepository orderRepository;
@@ -57,32 +84,34 @@ public class OrderService {
         List<OrderItem> orderItems = new ArrayList<>();
         double total = 0.0;
 
-        String productServiceUrl = "http://localhost:8082/api/product/id/";
+        List<Integer> productIds = new ArrayList<>();
+        for (CartItem cartItem : cartItems) {
+            productIds.add(cartItem.getProductId());
+        }
+        Map<Integer, ProductResponseDTO> products = productPriceCache.getProducts(productIds);
+
+        // Partial-failure policy: never sell a line at an unknown price. Lookups that failed
+        // throw ProductLookupException above (retryable); a product that doesn't exist or has
+        // no price rejects the whole checkout before saving.
+        List<Integer> unpriced = new ArrayList<>();
+        for (Integer productId : new LinkedHashSet<>(productIds)) {
+            ProductResponseDTO product = products.get(productId);
+            if (product == null || product.getProductPrice() <= 0) {
+                unpriced.add(productId);
+            }
+        }
+        if (!unpriced.isEmpty()) {
+            throw new UnpricedProductException(unpriced);
+        }
 
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
             orderItem.setProductId(cartItem.getProductId());
             orderItem.setQuantity(cartItem.getQuantity());
 
-            try {
-                ProductResponseDTO product = restTemplate.getForObject(
-                        productServiceUrl + cartItem.getProductId(),
-                        ProductResponseDTO.class
-                );
-
-                if (product != null && product.getProductPrice() > 0) {
-                    double unitPrice = product.getProductPrice();
-                    orderItem.setUnitPrice(unitPrice);
-                    total += unitPrice * orderItem.getQuantity();
-                } else {
-                    System.out.println("⚠️ Product not found or price missing for productId=" + cartItem.getProductId());
-                    orderItem.setUnitPrice(0.0); // fallback
-                }
-            } catch (Exception e) {
-                System.out.println("⚠️ Failed to fetch product for productId=" + cartItem.getProductId());
-                e.printStackTrace();
-                orderItem.setUnitPrice(0.0); // fallback
-            }
+            double unitPrice = products.get(cartItem.getProductId()).getProductPrice();
+            orderItem.setUnitPrice(unitPrice);
+            total += unitPrice * orderItem.getQuantity();
 
             orderItem.setOrder(order);
             orderItem.setOrderStatus(OrderStatus.CREATED);
@@ -93,67 +122,167 @@ public class OrderService {
         order.setTotal(total);
         order.setOrderStatus(OrderStatus.CREATED);
 
-        Order savedOrder = orderRepository.save(order);
+        // Take the stock before writing the order. From here on any failure releases it; if the
+        // reserve call itself times out, an uncommitted reservation expires in product-service.
+        String reservationId = UUID.randomUUID().toString();
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (CartItem cartItem : cartItems) {
+            quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+        }
+        List<Integer> outOfStock = productClient.reserveStock(reservationId, quantities);
+        if (!outOfStock.isEmpty()) {
+            throw new InsufficientStockException(outOfStock);
+        }
+        order.setStockReservationId(reservationId);
 
-        // Publish event
-        OrderCreatedEvent event = new OrderCreatedEvent(
-                (long) savedOrder.getOrderId(),
-                "User-" + savedOrder.getUserId(),
-                savedOrder.getOrderStatus().name()
-        );
-        orderEventPublisher.publishOrderCreated(event);
+        // Order, its OrderCreatedEvent and the reservation commit are written atomically; OutboxRelay
+        // publishes the event and StockCommitRelay commits the reservation after this transaction,
+        // so no remote call runs while it holds a connection and row locks.
+        Order savedOrder;
+        try {
+            savedOrder = transactionTemplate.execute(tx -> {
+                Order saved = orderRepository.save(order);
+                OrderCreatedEvent event = new OrderCreatedEvent(
+                        (long) saved.getOrderId(),
+                        "User-" + saved.getUserId(),
+                        saved.getOrderStatus().name(),
+                        reservationId
+                );
+                OutboxEvent outboxEvent = new OutboxEvent();
+                outboxEvent.setAggregateId(saved.getOrderId());
+                outboxEvent.setEventType(OutboxRelay.ORDER_CREATED);
+                outboxEvent.setPayload(toJson(event));
+                outboxEventRepository.save(outboxEvent);
+                outboxEventRepository.save(StockCommitRelay.event(saved.getOrderId(), reservationId));
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed remotely, so the reservation is still HELD and can be released
+            releaseReservationQuietly(reservationId);
+            throw e;
+        }
 
         System.out.println("✅ Order placed: " + savedOrder);
         return savedOrder;
     }
 
 
-    // === Update order status (called by orchestrator) ===
-    public Order updateOrderStatus(int orderId, String status) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
-        if (optionalOrder.isEmpty()) {
-            throw new RuntimeException("Order not found with ID: " + orderId);
-        }
-
-        Order order = optionalOrder.get();
-
+    private void releaseReservationQuietly(String reservationId) {
         try {
-            OrderStatus newStatus = OrderStatus.valueOf(status);
-            order.setOrderStatus(newStatus);
-        } catch (IllegalArgumentException e) {
-            System.out.println("⚠️ Unknown enum value, storing as raw string");
-            order.setOrderStatus(OrderStatus.FAILED); // fallback
+            productClient.releaseReservation(reservationId);
+        } catch (RuntimeException e) {
+            // It still expires on its own; product-service only keeps it if the order exists
+            System.out.println("⚠️ Could not release stock reservation " + reservationId + ": " + e.getMessage());
         }
+    }
 
-        Order savedOrder = orderRepository.save(order);
-
-        // --- Record status history ---
-        OrderStatusHistory history = new OrderStatusHistory();
-        history.setOrderId(orderId);
-        history.setStatus(status);
-        orderStatusHistoryRepository.save(history);
-        System.out.println("📚 Recorded status in history: " + status);
-
-        return savedOrder;
+    // === Update order status (called by orchestrator) ===
+    // Validated against OrderStatus's transition table and applied with a conditional
+    // UPDATE, so concurrent callbacks can't overwrite each other and repeats write nothing.
+    public StatusTransitionDTO updateOrderStatus(int orderId, OrderStatus next) {
+        return transactionTemplate.execute(tx -> {
+            for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+                OrderStatus current = orderRepository.findStatusByOrderId(orderId)
+                        .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
+
+                if (current == next) {
+                    return new StatusTransitionDTO(orderId, current, current, TransitionOutcome.DUPLICATE);
+                }
+                if (!current.canTransitionTo(next)) {
+                    System.out.println("⏭️ Ignoring " + current + " -> " + next + " for order " + orderId);
+                    return new StatusTransitionDTO(orderId, current, current, TransitionOutcome.STALE);
+                }
+                if (orderRepository.compareAndSetStatus(orderId, current, next) == 1) {
+                    orderStatusHistoryRepository.save(new OrderStatusHistory(orderId, next.name()));
+                    System.out.println("📚 Recorded status in history: " + next);
+                    return new StatusTransitionDTO(orderId, current, next, TransitionOutcome.APPLIED);
+                }
+                // Lost the race to another callback; re-read and decide again
+            }
+            OrderStatus current = orderRepository.findStatusByOrderId(orderId).orElse(null);
+            return new StatusTransitionDTO(orderId, current, current, TransitionOutcome.CONFLICT);
+        });
     }
 
-    public List<Map<String, Object>> getOrdersWithStatusHistory(int userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
-        List<Map<String, Object>> result = new ArrayList<>();
+    // === Bulk status update (orchestrator callbacks, nightly re-sync) ===
+    // One transaction. Per chunk: one query for the current statuses, the transition
+    // table applied in memory, then one JDBC batch of conditional UPDATEs and one
+    // batch of history inserts for the rows that actually changed.
+    public BulkStatusUpdateDTO updateOrderStatuses(List<BulkStatusUpdateRequest.StatusUpdate> updates) {
+        return transactionTemplate.execute(tx -> {
+            int updated = 0;
+            int skipped = 0;
+            List<Integer> notFound = new ArrayList<>();
+            List<Integer> invalid = new ArrayList<>();
+            List<Integer> conflicts = new ArrayList<>();
+
+            for (int from = 0; from < updates.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+                List<BulkStatusUpdateRequest.StatusUpdate> chunk =
+                        updates.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, updates.size()));
+
+                Set<Integer> orderIds = new HashSet<>();
+                for (BulkStatusUpdateRequest.StatusUpdate update : chunk) {
+                    orderIds.add(update.getOrderId());
+                }
+                Map<Integer, OrderStatus> statuses = new HashMap<>();
+                for (OrderRepository.OrderStatusView view : orderRepository.findStatusesByOrderIdIn(orderIds)) {
+                    statuses.put(view.getOrderId(), view.getOrderStatus());
+                }
 
-        for (Order order : orders) {
-            Map<String, Object> orderMap = new HashMap<>();
-            orderMap.put("order", order);
+                // Several updates for one order chain: each expects the status the previous one set
+                List<Object[]> casArgs = new ArrayList<>();
+                List<OrderStatusHistory> history = new ArrayList<>();
+                for (BulkStatusUpdateRequest.StatusUpdate update : chunk) {
+                    Integer orderId = update.getOrderId();
+                    OrderStatus current = statuses.get(orderId);
+                    if (current == null) {
+                        notFound.add(orderId);
+                        continue;
+                    }
+                    OrderStatus next = OrderStatus.fromName(update.getStatus());
+                    if (next == null) {
+                        invalid.add(orderId);
+                        continue;
+                    }
+                    if (!current.canTransitionTo(next)) {
+                        skipped++;
+                        continue;
+                    }
+                    casArgs.add(new Object[]{next.name(), orderId, current.name()});
+                    history.add(new OrderStatusHistory(orderId, next.name()));
+                    statuses.put(orderId, next);
+                }
 
-            List<OrderStatusHistory> historyList = orderStatusHistoryRepository.findByOrderId(order.getOrderId());
-            orderMap.put("statusHistory", historyList);
+                int[] counts = jdbcTemplate.batchUpdate(
+                        "UPDATE orders SET order_status = ? WHERE order_id = ? AND order_status = ?", casArgs);
+                List<OrderStatusHistory> applied = new ArrayList<>(history.size());
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        conflicts.add(history.get(i).getOrderId());
+                    } else {
+                        applied.add(history.get(i));
+                    }
+                }
+                orderStatusHistoryRepository.saveAll(applied);
+                updated += applied.size();
 
-            result.add(orderMap);
-        }
+                // Keep the persistence context small across thousands of orders
+                entityManager.flush();
+                entityManager.clear();
+            }
 
-        return result;
+            System.out.println("📚 Bulk status update: " + updated + " applied, " + skipped + " skipped, "
+                    + notFound.size() + " not found, " + invalid.size() + " invalid, " + conflicts.size() + " conflicts");
+            return new BulkStatusUpdateDTO(updated, skipped, notFound, invalid, conflicts);
+        });
     }
 
-
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize event: " + event, e);
+        }
+    }
 
 }
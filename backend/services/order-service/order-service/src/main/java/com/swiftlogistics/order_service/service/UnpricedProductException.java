@@ -0,0 +1,22 @@
+package com.swiftlogistics.order_service.service;
+
+import java.util.List;
+
+/**
+ * The cart holds products that product-service doesn't know or that have no price.
+ * The order is not placed, since a line is never sold at an unknown price; checkout
+ * answers 409 until the cart changes.
+ */
+public class UnpricedProductException extends RuntimeException {
+
+    private final List<Integer> productIds;
+
+    public UnpricedProductException(List<Integer> productIds) {
+        super("No price for productIds=" + productIds + ", order not placed");
+        this.productIds = productIds;
+    }
+
+    public List<Integer> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,49 @@
+package com.swiftlogistics.product_service.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Asks order-service, which owns the truth about orders, which stock reservations
+ * belong to an order that exists. Used before expiring or keeping reservations.
+ * order.url is a discovery service id, so any order-service instance can answer.
+ */
+@Component
+public class OrderLookupClient {
+
+    private final RestClient restClient;
+    private final String serviceSecret;
+
+    public OrderLookupClient(@LoadBalanced RestClient.Builder restClientBuilder,
+                             @Value("${order.url:http://order-service}") String url,
+                             @Value("${internal.service.secret:}") String serviceSecret,
+                             @Value("${order.connect-timeout-ms:1000}") long connectTimeoutMs,
+                             @Value("${order.request-timeout-ms:5000}") long requestTimeoutMs) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(requestTimeoutMs));
+        this.restClient = restClientBuilder.baseUrl(url).requestFactory(requestFactory).build();
+        this.serviceSecret = serviceSecret;
+    }
+
+    // reservationId -> orderId for the reservations that have an order; the rest are absent
+    public Map<String, Integer> ordersFor(Collection<String> reservationIds) {
+        Map<String, Integer> orders = restClient.post()
+                .uri("/api/order/internal/stock-reservations/orders")
+                .header("X-Service-Token", serviceSecret)
+                .body(reservationIds)
+                .retrieve()
+                .body(new ParameterizedTypeReference<Map<String, Integer>>() {});
+        return orders == null ? Map.of() : orders;
+    }
+}
@@ -0,0 +1,17 @@
+package com.swiftlogistics.product_service.config;
+
+import com.swiftlogistics.common.security.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JwtConfig {
+
+    @Bean
+    public JwtUtil jwtUtil(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.cache.max-size:10000}") int cacheMaxSize,
+                           @Value("${jwt.cache.ttl-ms:300000}") long cacheTtlMs) {
+        return new JwtUtil(secret, cacheMaxSize, cacheTtlMs);
+    }
+}
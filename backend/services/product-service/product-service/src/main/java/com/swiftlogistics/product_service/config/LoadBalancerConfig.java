@@ -0,0 +1,43 @@
+package com.swiftlogistics.product_service.config;
+
+import com.swiftlogistics.common.loadbalancer.InstanceStats;
+import com.swiftlogistics.common.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Scope;
+import org.springframework.web.client.RestClient;
+
+// @LoadBalanced clients (order-service calls) pick instances on measured latency and load
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceStats instanceStats(@Value("${loadbalancer.latency-decay-ms:5000}") long decayMs,
+                                       @Value("${loadbalancer.ejection.consecutive-failures:5}") int ejectAfterFailures,
+                                       @Value("${loadbalancer.ejection.base-ms:10000}") long baseEjectionMs,
+                                       @Value("${loadbalancer.ejection.max-ms:120000}") long maxEjectionMs) {
+        return new InstanceStats(decayMs, ejectAfterFailures, baseEjectionMs, maxEjectionMs);
+    }
+
+    // Resolves service ids (http://order-service/...) through discovery; a new builder per injection point
+    @Bean
+    @LoadBalanced
+    @Scope("prototype")
+    public RestClient.Builder loadBalancedRestClientBuilder(RestClientBuilderConfigurer configurer) {
+        return configurer.configure(RestClient.builder());
+    }
+
+    // Defining a builder above replaces Boot's; this restores it for clients that call plain URLs
+    @Bean
+    @Primary
+    @Scope("prototype")
+    public RestClient.Builder restClientBuilder(RestClientBuilderConfigurer configurer) {
+        return configurer.configure(RestClient.builder());
+    }
+}
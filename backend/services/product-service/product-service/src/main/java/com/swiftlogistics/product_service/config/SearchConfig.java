@@ -0,0 +1,25 @@
+package com.swiftlogistics.product_service.config;
+
+import com.swiftlogistics.product_service.events.ProductEventPublisher;
+import com.swiftlogistics.product_service.search.ProductIndexSynchronizer;
+import com.swiftlogistics.product_service.service.CatalogVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    public RedisMessageListenerContainer productChangesListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         ProductIndexSynchronizer synchronizer,
+                                                                         CatalogVersion catalogVersion) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(synchronizer, new ChannelTopic(ProductEventPublisher.PRODUCT_CHANGES_CHANNEL));
+        container.addMessageListener(catalogVersion, new ChannelTopic(ProductEventPublisher.PRODUCT_CHANGES_CHANNEL));
+        return container;
+    }
+}
@@ -1,14 +1,23 @@
 package com.swiftlogistics.product_service.controller;
 
+import com.swiftlogistics.product_service.dto.ProductChanges;
+import com.swiftlogistics.product_service.dto.ProductPage;
+import com.swiftlogistics.product_service.dto.ProductSearchResult;
 import com.swiftlogistics.product_service.model.Product;
+import com.swiftlogistics.product_service.repository.ProductRepository;
+import com.swiftlogistics.product_service.search.ProductSearchQuery;
+import com.swiftlogistics.product_service.service.CatalogVersion;
 import com.swiftlogistics.product_service.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import jakarta.servlet.http.HttpServletRequest;
-import com.swiftlogistics.product_service.security.JwtUtil;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import com.swiftlogistics.product_service.security.AuthenticatedUser;
 
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/product")
@@ -16,29 +25,63 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
-    private final JwtUtil jwtUtil;
+    private final CatalogVersion catalogVersion;
 
     @PostMapping("/add")
-    public ResponseEntity<Product> addProduct(@RequestBody Product product, HttpServletRequest request) {
-        String authorizationHeader = request.getHeader("Authorization");
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            String token = authorizationHeader.substring(7);
-            String userId = jwtUtil.extractUserId(token);
-            product.setUserId(Integer.parseInt(userId));
+    public ResponseEntity<Product> addProduct(@RequestBody Product product) {
+        Integer userId = AuthenticatedUser.currentUserId();
+        if (userId != null) {
+            product.setUserId(userId);
             return ResponseEntity.ok(productService.addProduct(product));
         }
         return ResponseEntity.badRequest().build();
     }
 
 
+    // Catalogue listings return summary rows a page at a time; pass nextCursor back as cursor to continue.
+    // sort is "id", "name", "price" or "createdAt", optionally followed by ",desc".
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPage> getAllProducts(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size,
+                                                      @RequestParam(defaultValue = "id") String sort,
+                                                      WebRequest webRequest) {
+        return productPage(null, null, sort, cursor, page, size, webRequest);
     }
 
+    // The ETag is the row version, so a revalidation answered with 304 only reads the version column
     @GetMapping("/id/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable int id) {
-        return ResponseEntity.ok(productService.getProductById(id).orElseThrow());
+    public ResponseEntity<Product> getProductById(@PathVariable int id, WebRequest webRequest) {
+        Optional<ProductRepository.ProductVersionView> version = productService.getProductVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "W/\"" + id + "-" + version.get().getVersion() + "\"";
+        long lastModified = version.get().getUpdatedAt() == null ? -1
+                : version.get().getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return productService.getProductById(id)
+                .map(product -> ResponseEntity.ok().eTag(etag).lastModified(lastModified).body(product))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Delta sync: products changed and ids deleted since the token, oldest first.
+    // Start without since, then keep passing back next; hasMore means call again straight away.
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getChanges(@RequestParam(required = false) String since,
+                                                     @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(productService.getChangesSince(since, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/ids")
+    public ResponseEntity<List<Product>> getProductsByIds(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
     }
 
     @PutMapping("/{id}")
@@ -53,12 +96,64 @@ public class ProductController {
     }
 
     @GetMapping("/vendor/{userId}")
-    public ResponseEntity<List<Product>> getByVendor(@PathVariable int userId) {
-        return ResponseEntity.ok(productService.getProductsByVendor(userId));
+    public ResponseEntity<ProductPage> getByVendor(@PathVariable int userId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @RequestParam(defaultValue = "id") String sort,
+                                                   WebRequest webRequest) {
+        return productPage(null, userId, sort, cursor, page, size, webRequest);
+    }
+
+    // Full-text search with typo tolerance; prefix=true also matches the last word as a prefix
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResult> search(@RequestParam(required = false) String q,
+                                                      @RequestParam(required = false) String category,
+                                                      @RequestParam(required = false) Integer vendor,
+                                                      @RequestParam(required = false) Double minPrice,
+                                                      @RequestParam(required = false) Double maxPrice,
+                                                      @RequestParam(defaultValue = "true") boolean prefix,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(productService.searchProducts(
+                    new ProductSearchQuery(q, category, vendor, minPrice, maxPrice, prefix, page, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/category/{productCategory}")
-    public ResponseEntity<List<Product>> getByCategory(@PathVariable String productCategory){
-        return ResponseEntity.ok(productService.getProductByCategory(productCategory));
+    public ResponseEntity<ProductPage> getByCategory(@PathVariable String productCategory,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     @RequestParam(defaultValue = "id") String sort,
+                                                     WebRequest webRequest){
+        return productPage(productCategory, null, sort, cursor, page, size, webRequest);
+    }
+
+    // Listings are validated against the catalogue version, checked before any query runs:
+    // nothing in the catalogue changed means the same request still yields the same page.
+    private ResponseEntity<ProductPage> productPage(String category, Integer vendorId, String sort, String cursor,
+                                                    int page, int size, WebRequest webRequest) {
+        String etag = "W/\"" + Long.toHexString(catalogVersion.epochMicros()) + "-" + Integer.toHexString(requestKey(webRequest).hashCode()) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().eTag(etag)
+                    .body(productService.getProductPage(category, vendorId, sort, cursor, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static String requestKey(WebRequest webRequest) {
+        if (webRequest instanceof ServletWebRequest servletWebRequest) {
+            String query = servletWebRequest.getRequest().getQueryString();
+            return servletWebRequest.getRequest().getRequestURI() + (query == null ? "" : "?" + query);
+        }
+        return webRequest.getDescription(false) + webRequest.getParameterMap().toString();
     }
 }
@@ -0,0 +1,58 @@
+package com.swiftlogistics.product_service.controller;
+
+import com.swiftlogistics.product_service.dto.StockReservationRequest;
+import com.swiftlogistics.product_service.dto.StockReservationResult;
+import com.swiftlogistics.product_service.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+// Stock reservations used by checkout (order-service) and order compensation (orchestrator)
+@RestController
+@RequestMapping("/api/product/stock")
+@RequiredArgsConstructor
+public class StockController {
+
+    private final StockReservationService stockReservationService;
+
+    // 200 when reserved, 409 with the short productIds when any product lacks stock
+    @PostMapping("/reservations")
+    public ResponseEntity<StockReservationResult> reserve(@RequestBody StockReservationRequest request) {
+        return handle(() -> {
+            StockReservationResult result = stockReservationService.reserve(request);
+            return result.isReserved() ? ResponseEntity.ok(result) : ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        });
+    }
+
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<StockReservationResult> commit(@PathVariable String reservationId, @RequestParam int orderId) {
+        return handle(() -> ResponseEntity.ok(stockReservationService.commit(reservationId, orderId)));
+    }
+
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<StockReservationResult> release(@PathVariable String reservationId) {
+        return handle(() -> ResponseEntity.ok(stockReservationService.release(reservationId)));
+    }
+
+    @PostMapping("/orders/{orderId}/release")
+    public ResponseEntity<Map<String, Integer>> releaseForOrder(@PathVariable int orderId) {
+        return ResponseEntity.ok(Map.of("released", stockReservationService.releaseForOrder(orderId)));
+    }
+
+    private static <T> ResponseEntity<T> handle(Supplier<ResponseEntity<T>> call) {
+        try {
+            return call.get();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.swiftlogistics.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+    // Products created or updated since the token, oldest change first
+    private List<ProductSummary> changed;
+    private List<Integer> deleted;
+    // Pass back as 'since' on the next call; also returned when nothing changed
+    private String next;
+    // More changes are ready now; call again straight away
+    private boolean hasMore;
+}
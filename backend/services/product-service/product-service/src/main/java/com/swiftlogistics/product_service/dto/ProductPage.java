@@ -0,0 +1,16 @@
+package com.swiftlogistics.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<ProductSummary> products;
+    // Opaque continuation token for the next page, null on the last page
+    private String nextCursor;
+}
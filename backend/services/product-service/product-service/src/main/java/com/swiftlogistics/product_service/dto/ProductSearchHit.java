@@ -0,0 +1,17 @@
+package com.swiftlogistics.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHit {
+    private Integer productId;
+    private String productName;
+    private String productCategory;
+    private Double productPrice;
+    private Integer userId;
+    private float score;
+}
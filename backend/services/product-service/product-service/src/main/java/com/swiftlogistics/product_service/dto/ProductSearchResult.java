@@ -0,0 +1,18 @@
+package com.swiftlogistics.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+    private int total;
+    private List<ProductSearchHit> hits;
+    // facet name (category, vendor, price) -> value -> number of matching products
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,23 @@
+package com.swiftlogistics.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Listing row: everything a catalogue screen shows, without the version column
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+    private Integer productId;
+    private String productName;
+    private String productDescription;
+    private String productCategory;
+    private Double productPrice;
+    private Integer productQuantity;
+    private Integer userId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.swiftlogistics.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequest {
+    // Chosen by the caller so a retried request can't reserve twice
+    private String reservationId;
+    private List<Item> items;
+    // Optional; defaults to stock.reservation.ttl-seconds
+    private Integer ttlSeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int productId;
+        private int quantity;
+    }
+}
@@ -0,0 +1,25 @@
+package com.swiftlogistics.product_service.dto;
+
+import com.swiftlogistics.product_service.model.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResult {
+    private String reservationId;
+    // null when nothing was reserved
+    private ReservationStatus status;
+    private LocalDateTime expiresAt;
+    // Products that didn't have enough stock; nothing is reserved when this is non-empty
+    private List<Integer> insufficient;
+
+    public boolean isReserved() {
+        return status == ReservationStatus.HELD || status == ReservationStatus.COMMITTED;
+    }
+}
@@ -0,0 +1,27 @@
+package com.swiftlogistics.product_service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class ProductEventPublisher {
+
+    // Subscribers (e.g. order-service price cache) listen on this Redis channel
+    public static final String PRODUCT_CHANGES_CHANNEL = "product-changes";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void publishProductChanged(ProductChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(PRODUCT_CHANGES_CHANNEL, objectMapper.writeValueAsString(event));
+            System.out.println("✅ Published " + event);
+        } catch (Exception e) {
+            // Caches fall back to their TTL if the event is lost
+            System.out.println("⚠️ Failed to publish " + event + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.swiftlogistics.product_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Stock one instance has taken off a hot product to sell from memory; see HotStockLedger
+@Entity
+@Table(name = "hot_stock_leases", indexes = {
+        @Index(name = "idx_hot_stock_leases_instance", columnList = "instance_id"),
+        @Index(name = "idx_hot_stock_leases_heartbeat", columnList = "heartbeat_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotStockLease {
+
+    @Id
+    @Column(name = "lease_id", length = 64)
+    private String leaseId;
+
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "instance_id", length = 128)
+    private String instanceId;
+
+    // Units moved from products.stock_quantity into this lease
+    @Column(name = "leased")
+    private Long leased;
+
+    // Units sold from the lease by durably recorded reservations
+    @Column(name = "sold")
+    private Long sold;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+}
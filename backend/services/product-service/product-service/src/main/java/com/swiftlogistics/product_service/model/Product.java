@@ -2,10 +2,19 @@ package com.swiftlogistics.product_service.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name="products")
+// Listing indexes: each ends in product_id so keyset pages seek straight to the next row
+@Table(name="products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category, product_id"),
+        @Index(name = "idx_products_user", columnList = "user_id, product_id"),
+        @Index(name = "idx_products_name", columnList = "name, product_id"),
+        @Index(name = "idx_products_price", columnList = "price, product_id"),
+        @Index(name = "idx_products_created_at", columnList = "created_at, product_id"),
+        @Index(name = "idx_products_updated_at", columnList = "updated_at, product_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +37,8 @@ public class Product {
     @Column(name = "price")
     private Double productPrice;
 
+    // Units not leased out; a hot product's leased units (HotStockLedger) are missing
+    // from this until sold or returned, so listings show it lower than what can be sold
     @Column(name = "stock_quantity")
     private Integer  productQuantity;
 
@@ -36,4 +47,14 @@ public class Product {
 
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Set on every insert/update; drives ETags, Last-Modified and the changes feed.
+    // The column defaults cover rows that existed before these columns were added.
+    @UpdateTimestamp
+    @Column(name = "updated_at", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
 }
@@ -0,0 +1,22 @@
+package com.swiftlogistics.product_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Tombstone so the changes feed can tell clients which products were deleted
+@Entity
+@Table(name = "product_deletions", indexes = @Index(name = "idx_product_deletions_deleted_at", columnList = "deleted_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDeletion {
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+}
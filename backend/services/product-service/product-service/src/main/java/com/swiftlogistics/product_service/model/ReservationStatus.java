@@ -0,0 +1,11 @@
+package com.swiftlogistics.product_service.model;
+
+public enum ReservationStatus {
+    // Stock is taken off the product; becomes EXPIRED if not committed before expires_at
+    HELD,
+    // Checkout succeeded and the reservation belongs to an order
+    COMMITTED,
+    // Stock was put back, either on request or by the expiry sweeper
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,40 @@
+package com.swiftlogistics.product_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Written through JdbcTemplate by StockReservationService; mapped so ddl-auto creates the table
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_expiry", columnList = "status, expires_at"),
+        @Index(name = "idx_stock_reservations_order", columnList = "order_id"),
+        @Index(name = "idx_stock_reservations_unverified", columnList = "status, verified_at, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    @Id
+    @Column(name = "reservation_id", length = 64)
+    private String reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16)
+    private ReservationStatus status;
+
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // When order-service confirmed the order of a COMMITTED reservation exists; null until checked
+    @Column(name = "verified_at")
+    private LocalDateTime verifiedAt;
+}
@@ -0,0 +1,35 @@
+package com.swiftlogistics.product_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+// Quantity taken from one product by a reservation, used to put it back on release
+@Entity
+@Table(name = "stock_reservation_lines")
+@IdClass(StockReservationLine.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationLine {
+
+    @Id
+    @Column(name = "reservation_id", length = 64)
+    private String reservationId;
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String reservationId;
+        private Integer productId;
+    }
+}
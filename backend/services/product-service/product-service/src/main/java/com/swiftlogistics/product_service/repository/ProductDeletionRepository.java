@@ -0,0 +1,18 @@
+package com.swiftlogistics.product_service.repository;
+
+import com.swiftlogistics.product_service.model.ProductDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductDeletionRepository extends JpaRepository<ProductDeletion, Integer> {
+
+    @Query("select d.productId from ProductDeletion d where d.deletedAt > :after and d.deletedAt <= :upTo order by d.productId")
+    List<Integer> findProductIdsDeletedBetween(@Param("after") LocalDateTime after, @Param("upTo") LocalDateTime upTo);
+
+    @Query("select max(d.deletedAt) from ProductDeletion d")
+    LocalDateTime findLatestDeletion();
+}
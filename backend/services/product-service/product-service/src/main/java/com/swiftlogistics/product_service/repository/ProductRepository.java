@@ -1,11 +1,16 @@
 package com.swiftlogistics.product_service.repository;
 
+import com.swiftlogistics.product_service.dto.ProductSummary;
 import com.swiftlogistics.product_service.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductRepositoryCustom {
     Optional<Product> findByProductName(String productName);
 
     List<Product> findByUserId(int userId);
@@ -13,4 +18,28 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     Optional<Product> findByProductId(int productId);
 
     List<Product> findByProductCategory(String productCategory);
+
+    interface ProductVersionView {
+        Long getVersion();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    // Just what a conditional GET needs, so a 304 never loads the full row
+    @Query("select p.version as version, p.updatedAt as updatedAt from Product p where p.productId = :productId")
+    Optional<ProductVersionView> findVersionByProductId(@Param("productId") int productId);
+
+    @Query("select max(p.updatedAt) from Product p")
+    LocalDateTime findLatestUpdate();
+
+    // Changes feed: keyset over (updatedAt, productId), capped at upTo
+    @Query("select new com.swiftlogistics.product_service.dto.ProductSummary(p.productId, p.productName, "
+            + "p.productDescription, p.productCategory, p.productPrice, p.productQuantity, p.userId, p.createdAt, p.updatedAt) "
+            + "from Product p where (p.updatedAt > :after or (p.updatedAt = :after and p.productId > :afterId)) "
+            + "and p.updatedAt <= :upTo order by p.updatedAt, p.productId")
+    List<ProductSummary> findChangedSince(@Param("after") LocalDateTime after, @Param("afterId") int afterId,
+                                          @Param("upTo") LocalDateTime upTo, Limit limit);
+
+    // Keyset batches in id order, used to fill the search index
+    List<Product> findByProductIdGreaterThanOrderByProductIdAsc(int productId, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.swiftlogistics.product_service.repository;
+
+import com.swiftlogistics.product_service.dto.ProductSummary;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * One page of listing rows, optionally restricted to a category and/or vendor.
+     * Continues after (afterValue, afterId) when afterId is set, otherwise skips
+     * offset rows.
+     */
+    List<ProductSummary> findSummaries(String category, Integer vendorId, ProductSort sort, boolean descending,
+                                       Object afterValue, Integer afterId, int offset, int limit);
+}
@@ -0,0 +1,65 @@
+package com.swiftlogistics.product_service.repository;
+
+import com.swiftlogistics.product_service.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+// Listing queries select only the summary columns and seek by key instead of counting rows
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findSummaries(String category, Integer vendorId, ProductSort sort, boolean descending,
+                                              Object afterValue, Integer afterId, int offset, int limit) {
+        String column = sort.getColumn();
+        String direction = descending ? "desc" : "asc";
+        String after = descending ? "<" : ">";
+
+        StringBuilder jpql = new StringBuilder("select new com.swiftlogistics.product_service.dto.ProductSummary("
+                + "p.productId, p.productName, p.productDescription, p.productCategory, p.productPrice, p.productQuantity, p.userId, p.createdAt, "
+                + "p.updatedAt)"
+                + " from Product p where 1 = 1");
+        if (category != null) {
+            jpql.append(" and p.productCategory = :category");
+        }
+        if (vendorId != null) {
+            jpql.append(" and p.userId = :vendorId");
+        }
+        if (column != null) {
+            jpql.append(" and ").append(column).append(" is not null");
+        }
+        if (afterId != null) {
+            if (column == null) {
+                jpql.append(" and p.productId ").append(after).append(" :afterId");
+            } else {
+                jpql.append(" and (").append(column).append(' ').append(after).append(" :afterValue or (")
+                        .append(column).append(" = :afterValue and p.productId ").append(after).append(" :afterId))");
+            }
+        }
+        jpql.append(" order by ");
+        if (column != null) {
+            jpql.append(column).append(' ').append(direction).append(", ");
+        }
+        jpql.append("p.productId ").append(direction);
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        if (vendorId != null) {
+            query.setParameter("vendorId", vendorId);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (column != null) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.setFirstResult(afterId == null ? offset : 0).setMaxResults(limit).getResultList();
+    }
+}
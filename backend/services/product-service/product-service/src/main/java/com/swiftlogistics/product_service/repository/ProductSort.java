@@ -0,0 +1,39 @@
+package com.swiftlogistics.product_service.repository;
+
+/**
+ * Sortable listing columns. Each is paired with product_id as a tie-breaker so
+ * keyset continuation is exact; rows with a null sort value are left out of
+ * that ordering.
+ */
+public enum ProductSort {
+    ID("productId", null),
+    NAME("productName", "p.productName"),
+    PRICE("productPrice", "p.productPrice"),
+    CREATED_AT("createdAt", "p.createdAt");
+
+    private final String property;
+    private final String column;
+
+    ProductSort(String property, String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // JPQL path of the sort column, null when sorting by id alone
+    String getColumn() {
+        return column;
+    }
+
+    public static ProductSort fromProperty(String property) {
+        for (ProductSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(property) || sort.name().equalsIgnoreCase(property)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Cannot sort products by " + property);
+    }
+}
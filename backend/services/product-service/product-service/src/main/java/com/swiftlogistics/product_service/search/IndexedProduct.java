@@ -0,0 +1,15 @@
+package com.swiftlogistics.product_service.search;
+
+import com.swiftlogistics.product_service.model.Product;
+
+import java.util.Objects;
+
+// What the index keeps per product: enough to render a hit and compute facets without the database
+record IndexedProduct(int productId, String name, String category, Integer vendorId, Double price,
+                      int descriptionHash) {
+
+    static IndexedProduct of(Product product) {
+        return new IndexedProduct(product.getProductId(), product.getProductName(), product.getProductCategory(),
+                product.getUserId(), product.getProductPrice(), Objects.hashCode(product.getProductDescription()));
+    }
+}
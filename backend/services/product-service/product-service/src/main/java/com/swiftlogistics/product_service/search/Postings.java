@@ -0,0 +1,50 @@
+package com.swiftlogistics.product_service.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, as ascending ordinals with a per-document
+ * weight (name hits count triple). Ordinals only ever grow, so appends keep
+ * the list sorted; removed documents are filtered out at query time.
+ */
+final class Postings {
+
+    private int[] ordinals = new int[2];
+    private byte[] weights = new byte[2];
+    private int size;
+
+    void add(int ordinal, int weight) {
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        ordinals[size] = ordinal;
+        weights[size] = (byte) Math.min(weight, Byte.MAX_VALUE);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int ordinal(int index) {
+        return ordinals[index];
+    }
+
+    int weight(int index) {
+        return weights[index];
+    }
+
+    // Index of the first entry >= ordinal, searching forward from 'from' by galloping
+    int advance(int from, int ordinal) {
+        int bound = 1;
+        int low = from;
+        while (from + bound < size && ordinals[from + bound] < ordinal) {
+            low = from + bound;
+            bound <<= 1;
+        }
+        int high = Math.min(from + bound, size);
+        int found = Arrays.binarySearch(ordinals, low, high, ordinal);
+        return found >= 0 ? found : -found - 1;
+    }
+}
@@ -0,0 +1,74 @@
+package com.swiftlogistics.product_service.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftlogistics.product_service.events.ProductChangedEvent;
+import com.swiftlogistics.product_service.model.Product;
+import com.swiftlogistics.product_service.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Fills the search index from the database at startup and applies changes made
+ * through other product-service instances, which arrive on the product-changes
+ * channel. Changes made here are already indexed by ProductService; re-indexing
+ * an unchanged product is a no-op.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductIndexSynchronizer implements MessageListener {
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${search.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        Thread.ofVirtual().name("search-index-load").start(() -> {
+            long start = System.currentTimeMillis();
+            int lastId = 0;
+            try {
+                List<Product> batch;
+                do {
+                    batch = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(lastId, Limit.of(loadBatchSize));
+                    if (!batch.isEmpty()) {
+                        productSearchIndex.indexAll(batch);
+                        lastId = batch.get(batch.size() - 1).getProductId();
+                    }
+                } while (batch.size() == loadBatchSize);
+                System.out.println("🔎 Indexed " + productSearchIndex.size() + " products in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                System.out.println("⚠️ Search index load stopped after productId " + lastId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ProductChangedEvent event = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), ProductChangedEvent.class);
+            if ("DELETED".equals(event.getChangeType())) {
+                productSearchIndex.remove(event.getProductId());
+            } else {
+                productRepository.findById(event.getProductId()).ifPresentOrElse(
+                        productSearchIndex::index,
+                        () -> productSearchIndex.remove(event.getProductId()));
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not apply product change to search index: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package com.swiftlogistics.product_service.search;
+
+import com.swiftlogistics.product_service.dto.ProductSearchHit;
+import com.swiftlogistics.product_service.dto.ProductSearchResult;
+import com.swiftlogistics.product_service.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name and description.
+ *
+ * Every query term must match, either exactly, as a prefix (last term only) or
+ * within one typo. Typo candidates come from a table of single-character deletions
+ * of every term, so no vocabulary scan is needed. Hits are ranked by IDF with
+ * saturated term weights, name matches counting triple and exact matches beating
+ * prefix and typo matches. Facet counts are taken over all filtered matches.
+ *
+ * An update appends the new version under a fresh ordinal and marks the old one
+ * dead. Once enough ordinals are dead the index is compacted on the writer's
+ * thread while searches keep using the old copy.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float EXACT_BOOST = 1.0f;
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final float FUZZY_BOOST = 0.6f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double[] PRICE_BUCKETS = {10, 50, 100, 500};
+    private static final int MAX_FACET_VALUES = 20;
+
+    private record Expansion(Postings postings, float boost) {}
+
+    private static final class State {
+        final List<IndexedProduct> docs = new ArrayList<>();
+        // Per-ordinal columns read by filters and facets; categories and vendors are dictionary ids
+        int[] categoryIds = new int[1024];
+        int[] vendorIds = new int[1024];
+        double[] prices = new double[1024];
+        final List<String> categories = new ArrayList<>();
+        final Map<String, Integer> categoryIdByName = new HashMap<>();
+        final List<Integer> vendors = new ArrayList<>();
+        final Map<Integer, Integer> vendorIdByValue = new HashMap<>();
+        final BitSet dead = new BitSet();
+        final Map<Integer, Integer> ordinalById = new HashMap<>();
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        // single-character deletion of a term -> terms it came from
+        final Map<String, List<String>> deletes = new HashMap<>();
+        int deadCount;
+
+        int liveCount() {
+            return docs.size() - deadCount;
+        }
+
+        void addDoc(IndexedProduct doc) {
+            int ordinal = docs.size();
+            if (ordinal == prices.length) {
+                categoryIds = Arrays.copyOf(categoryIds, ordinal * 2);
+                vendorIds = Arrays.copyOf(vendorIds, ordinal * 2);
+                prices = Arrays.copyOf(prices, ordinal * 2);
+            }
+            docs.add(doc);
+            ordinalById.put(doc.productId(), ordinal);
+            categoryIds[ordinal] = doc.category() == null ? -1 : categoryIdByName.computeIfAbsent(doc.category(), c -> {
+                categories.add(c);
+                return categories.size() - 1;
+            });
+            vendorIds[ordinal] = doc.vendorId() == null ? -1 : vendorIdByValue.computeIfAbsent(doc.vendorId(), v -> {
+                vendors.add(v);
+                return vendors.size() - 1;
+            });
+            prices[ordinal] = doc.price() == null ? Double.NaN : doc.price();
+        }
+    }
+
+    // Query filters resolved against one State's dictionaries
+    private record Filter(boolean[] categories, int vendor, double minPrice, double maxPrice, boolean matchesNothing) {
+
+        boolean test(State s, int ordinal) {
+            if (s.dead.get(ordinal)) {
+                return false;
+            }
+            if (categories != null) {
+                int category = s.categoryIds[ordinal];
+                if (category < 0 || !categories[category]) {
+                    return false;
+                }
+            }
+            if (vendor >= 0 && s.vendorIds[ordinal] != vendor) {
+                return false;
+            }
+            double price = s.prices[ordinal];
+            // NaN (no price) fails both comparisons
+            return (minPrice == Double.NEGATIVE_INFINITY || price >= minPrice)
+                    && (maxPrice == Double.POSITIVE_INFINITY || price <= maxPrice);
+        }
+    }
+
+    private final int maxPrefixTerms;
+    private final int minPrefixLength;
+    private final int fuzzyMinLength;
+    private final double compactionDeadRatio;
+    private final int maxResultWindow;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serialises writers and compaction; searches only ever wait for the short write lock
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private volatile State state = new State();
+
+    public ProductSearchIndex(@Value("${search.prefix.max-terms:64}") int maxPrefixTerms,
+                              @Value("${search.prefix.min-length:2}") int minPrefixLength,
+                              @Value("${search.fuzzy.min-length:4}") int fuzzyMinLength,
+                              @Value("${search.compaction.dead-ratio:0.2}") double compactionDeadRatio,
+                              @Value("${search.max-result-window:1000}") int maxResultWindow) {
+        this.maxPrefixTerms = maxPrefixTerms;
+        this.minPrefixLength = minPrefixLength;
+        this.fuzzyMinLength = fuzzyMinLength;
+        this.compactionDeadRatio = compactionDeadRatio;
+        this.maxResultWindow = maxResultWindow;
+    }
+
+    // ---------------------------------------------------------------- writes
+
+    public void index(Product product) {
+        indexAll(List.of(product));
+    }
+
+    public void indexAll(Collection<Product> products) {
+        List<IndexedProduct> docs = new ArrayList<>(products.size());
+        List<Map<String, Integer>> weights = new ArrayList<>(products.size());
+        for (Product product : products) {
+            docs.add(IndexedProduct.of(product));
+            weights.add(termWeights(product));
+        }
+
+        writerLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                State s = state;
+                for (int i = 0; i < docs.size(); i++) {
+                    IndexedProduct doc = docs.get(i);
+                    Integer previous = s.ordinalById.get(doc.productId());
+                    if (previous != null) {
+                        if (s.docs.get(previous).equals(doc)) {
+                            continue;
+                        }
+                        markDead(s, previous);
+                    }
+                    add(s, doc, weights.get(i));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            compactIfNeeded();
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        writerLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                State s = state;
+                Integer ordinal = s.ordinalById.remove(productId);
+                if (ordinal != null) {
+                    markDead(s, ordinal);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            compactIfNeeded();
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    public int size() {
+        return state.liveCount();
+    }
+
+    private static Map<String, Integer> termWeights(Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : SearchTokenizer.tokenize(product.getProductName())) {
+            weights.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : SearchTokenizer.tokenize(product.getProductDescription())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    private void add(State s, IndexedProduct doc, Map<String, Integer> weights) {
+        int ordinal = s.docs.size();
+        s.addDoc(doc);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Postings postings = s.terms.get(entry.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                s.terms.put(entry.getKey(), postings);
+                addDeletes(s, entry.getKey());
+            }
+            postings.add(ordinal, entry.getValue());
+        }
+    }
+
+    private void addDeletes(State s, String term) {
+        if (term.length() < fuzzyMinLength - 1) {
+            return;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            String deletion = term.substring(0, i) + term.substring(i + 1);
+            s.deletes.computeIfAbsent(deletion, k -> new ArrayList<>(2)).add(term);
+        }
+    }
+
+    private static void markDead(State s, int ordinal) {
+        if (!s.dead.get(ordinal)) {
+            s.dead.set(ordinal);
+            s.deadCount++;
+        }
+    }
+
+    // Caller holds writerLock, so nothing mutates the current state while it is copied
+    private void compactIfNeeded() {
+        State old = state;
+        if (old.deadCount < 1024 || old.deadCount < old.docs.size() * compactionDeadRatio) {
+            return;
+        }
+        State compacted = new State();
+        int[] remap = new int[old.docs.size()];
+        for (int ordinal = 0; ordinal < old.docs.size(); ordinal++) {
+            if (old.dead.get(ordinal)) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = compacted.docs.size();
+            compacted.addDoc(old.docs.get(ordinal));
+        }
+        for (Map.Entry<String, Postings> entry : old.terms.entrySet()) {
+            Postings from = entry.getValue();
+            Postings to = null;
+            for (int i = 0; i < from.size(); i++) {
+                int ordinal = remap[from.ordinal(i)];
+                if (ordinal < 0) {
+                    continue;
+                }
+                if (to == null) {
+                    to = new Postings();
+                }
+                to.add(ordinal, from.weight(i));
+            }
+            if (to != null) {
+                compacted.terms.put(entry.getKey(), to);
+                addDeletes(compacted, entry.getKey());
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            state = compacted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("🔎 Compacted search index: " + old.docs.size() + " -> " + compacted.docs.size() + " entries");
+    }
+
+    // ---------------------------------------------------------------- reads
+
+    public ProductSearchResult search(ProductSearchQuery query) {
+        int size = Math.max(1, query.size());
+        int from = Math.max(0, query.page()) * size;
+        if (from + size > maxResultWindow) {
+            throw new IllegalArgumentException("page * size must not exceed " + maxResultWindow);
+        }
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query.text())));
+
+        lock.readLock().lock();
+        try {
+            return search(state, query, tokens, from, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ProductSearchResult search(State s, ProductSearchQuery query, List<String> tokens, int from, int size) {
+        Filter filter = filter(s, query);
+        if (filter.matchesNothing()) {
+            return emptyResult();
+        }
+        if (tokens.isEmpty()) {
+            return browse(s, filter, from, size);
+        }
+
+        List<List<Expansion>> expansions = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean prefix = query.prefix() && i == tokens.size() - 1;
+            List<Expansion> expanded = expand(s, tokens.get(i), prefix);
+            if (expanded.isEmpty()) {
+                return emptyResult();
+            }
+            expansions.add(expanded);
+        }
+        // Cheapest term first so the candidate set is as small as possible from the start
+        expansions.sort(Comparator.comparingLong(ProductSearchIndex::cost));
+
+        List<Expansion> first = expansions.get(0);
+        long firstCost = cost(first);
+        int[] ordinals = new int[(int) firstCost];
+        float[] scores = new float[(int) firstCost];
+        int count = seed(s, filter, first, ordinals, scores);
+        for (int t = 1; t < expansions.size() && count > 0; t++) {
+            count = intersect(expansions.get(t), ordinals, scores, count);
+        }
+
+        FacetCounts facets = new FacetCounts(s);
+        for (int c = 0; c < count; c++) {
+            facets.add(s, ordinals[c]);
+        }
+        return new ProductSearchResult(count, topHits(s, ordinals, scores, count, from, size), facets.toMap(s));
+    }
+
+    // Every match of a blank query scores 0 and ties rank by ordinal, so the page is just the
+    // matches at positions [from, from + size); one pass over the live ordinals finds them and
+    // the facet counts without allocating anything the size of the catalogue
+    private static ProductSearchResult browse(State s, Filter filter, int from, int size) {
+        FacetCounts facets = new FacetCounts(s);
+        List<ProductSearchHit> hits = new ArrayList<>(size);
+        int docs = s.docs.size();
+        int count = 0;
+        for (int ordinal = s.dead.nextClearBit(0); ordinal < docs; ordinal = s.dead.nextClearBit(ordinal + 1)) {
+            if (!filter.test(s, ordinal)) {
+                continue;
+            }
+            if (count >= from && count < from + size) {
+                hits.add(hit(s.docs.get(ordinal), 0));
+            }
+            count++;
+            facets.add(s, ordinal);
+        }
+        return new ProductSearchResult(count, hits, facets.toMap(s));
+    }
+
+    private List<Expansion> expand(State s, String token, boolean prefix) {
+        int live = Math.max(1, s.liveCount());
+        List<Expansion> expansions = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        Postings exact = s.terms.get(token);
+        if (exact != null) {
+            seen.add(token);
+            expansions.add(new Expansion(exact, EXACT_BOOST * idf(exact, live)));
+        }
+
+        if (prefix && token.length() >= minPrefixLength) {
+            // Keep the most frequent completions when a short prefix matches many terms
+            PriorityQueue<Map.Entry<String, Postings>> top =
+                    new PriorityQueue<>(Comparator.comparingInt(e -> e.getValue().size()));
+            for (Map.Entry<String, Postings> entry
+                    : s.terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                top.add(entry);
+                if (top.size() > maxPrefixTerms) {
+                    top.poll();
+                }
+            }
+            for (Map.Entry<String, Postings> entry : top) {
+                seen.add(entry.getKey());
+                expansions.add(new Expansion(entry.getValue(), PREFIX_BOOST * idf(entry.getValue(), live)));
+            }
+        }
+
+        if (token.length() >= fuzzyMinLength) {
+            for (String candidate : fuzzyCandidates(s, token)) {
+                if (seen.add(candidate) && withinOneEdit(token, candidate)) {
+                    Postings postings = s.terms.get(candidate);
+                    expansions.add(new Expansion(postings, FUZZY_BOOST * idf(postings, live)));
+                }
+            }
+        }
+        return expansions;
+    }
+
+    // Terms one insertion, deletion, substitution or transposition away share a deletion with the token
+    private static Set<String> fuzzyCandidates(State s, String token) {
+        Set<String> candidates = new HashSet<>();
+        List<String> sameDeletes = s.deletes.get(token);
+        if (sameDeletes != null) {
+            candidates.addAll(sameDeletes);
+        }
+        for (int i = 0; i < token.length(); i++) {
+            String deletion = token.substring(0, i) + token.substring(i + 1);
+            if (s.terms.containsKey(deletion)) {
+                candidates.add(deletion);
+            }
+            List<String> terms = s.deletes.get(deletion);
+            if (terms != null) {
+                candidates.addAll(terms);
+            }
+        }
+        return candidates;
+    }
+
+    // Optimal string alignment distance <= 1
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        if (la == lb) {
+            int first = -1;
+            int mismatches = 0;
+            for (int i = 0; i < la; i++) {
+                if (a.charAt(i) != b.charAt(i)) {
+                    if (++mismatches == 1) {
+                        first = i;
+                    } else if (mismatches > 2) {
+                        return false;
+                    }
+                }
+            }
+            if (mismatches <= 1) {
+                return true;
+            }
+            return first + 1 < la && a.charAt(first) == b.charAt(first + 1) && a.charAt(first + 1) == b.charAt(first)
+                    && a.substring(first + 2).equals(b.substring(first + 2));
+        }
+        String longer = la > lb ? a : b;
+        String shorter = la > lb ? b : a;
+        int i = 0;
+        while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+            i++;
+        }
+        return shorter.regionMatches(i, longer, i + 1, shorter.length() - i);
+    }
+
+    private static float idf(Postings postings, int live) {
+        return (float) Math.log(1 + (live - postings.size() + 0.5) / (postings.size() + 0.5));
+    }
+
+    private static float termScore(float boost, int weight) {
+        return boost * weight / (weight + 1.2f);
+    }
+
+    private static long cost(List<Expansion> expansions) {
+        long cost = 0;
+        for (Expansion expansion : expansions) {
+            cost += expansion.postings().size();
+        }
+        return cost;
+    }
+
+    // Union of the first term's expansions, keeping each document's best score
+    private static int seed(State s, Filter filter, List<Expansion> expansions, int[] ordinals, float[] scores) {
+        if (expansions.size() == 1) {
+            Expansion only = expansions.get(0);
+            Postings postings = only.postings();
+            int count = 0;
+            for (int i = 0; i < postings.size(); i++) {
+                int ordinal = postings.ordinal(i);
+                if (filter.test(s, ordinal)) {
+                    ordinals[count] = ordinal;
+                    scores[count++] = termScore(only.boost(), postings.weight(i));
+                }
+            }
+            return count;
+        }
+
+        // Scores are positive, so their float bits sort like the floats; the best entry per ordinal sorts last
+        long[] packed = new long[ordinals.length];
+        int n = 0;
+        for (Expansion expansion : expansions) {
+            Postings postings = expansion.postings();
+            for (int i = 0; i < postings.size(); i++) {
+                float score = termScore(expansion.boost(), postings.weight(i));
+                packed[n++] = ((long) postings.ordinal(i) << 32) | (Float.floatToIntBits(score) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(packed, 0, n);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int ordinal = (int) (packed[i] >>> 32);
+            if (i + 1 < n && (int) (packed[i + 1] >>> 32) == ordinal) {
+                continue;
+            }
+            if (filter.test(s, ordinal)) {
+                ordinals[count] = ordinal;
+                scores[count++] = Float.intBitsToFloat((int) packed[i]);
+            }
+        }
+        return count;
+    }
+
+    // Keeps the candidates that also match this term, adding its best score; returns the new count
+    private static int intersect(List<Expansion> expansions, int[] ordinals, float[] scores, int count) {
+        int[] cursors = new int[expansions.size()];
+        int kept = 0;
+        for (int c = 0; c < count; c++) {
+            int ordinal = ordinals[c];
+            float best = 0;
+            for (int e = 0; e < expansions.size(); e++) {
+                Postings postings = expansions.get(e).postings();
+                int at = postings.advance(cursors[e], ordinal);
+                cursors[e] = at;
+                if (at < postings.size() && postings.ordinal(at) == ordinal) {
+                    best = Math.max(best, termScore(expansions.get(e).boost(), postings.weight(at)));
+                }
+            }
+            if (best > 0) {
+                ordinals[kept] = ordinal;
+                scores[kept++] = scores[c] + best;
+            }
+        }
+        return kept;
+    }
+
+    private static Filter filter(State s, ProductSearchQuery query) {
+        boolean[] categories = null;
+        boolean matchesNothing = false;
+        if (query.category() != null) {
+            categories = new boolean[s.categories.size()];
+            boolean any = false;
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = query.category().equalsIgnoreCase(s.categories.get(i));
+                any |= categories[i];
+            }
+            matchesNothing = !any;
+        }
+        int vendor = -1;
+        if (query.vendorId() != null) {
+            Integer id = s.vendorIdByValue.get(query.vendorId());
+            matchesNothing |= id == null;
+            vendor = id == null ? -1 : id;
+        }
+        return new Filter(categories, vendor,
+                query.minPrice() == null ? Double.NEGATIVE_INFINITY : query.minPrice(),
+                query.maxPrice() == null ? Double.POSITIVE_INFINITY : query.maxPrice(),
+                matchesNothing);
+    }
+
+    private static List<ProductSearchHit> topHits(State s, int[] ordinals, float[] scores, int count, int from, int size) {
+        int window = Math.min(count, from + size);
+        if (from >= window) {
+            return List.of();
+        }
+        // Min-heap of candidate indexes holding the best 'window' so far; the root is the weakest
+        int[] heap = new int[window];
+        int heapSize = 0;
+        for (int c = 0; c < count; c++) {
+            if (heapSize < window) {
+                heap[heapSize] = c;
+                siftUp(heap, heapSize++, ordinals, scores);
+            } else if (ranksHigher(c, heap[0], ordinals, scores)) {
+                heap[0] = c;
+                siftDown(heap, heapSize, ordinals, scores);
+            }
+        }
+        int[] ranked = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, ordinals, scores);
+        }
+
+        List<ProductSearchHit> hits = new ArrayList<>(ranked.length - from);
+        for (int i = from; i < ranked.length; i++) {
+            hits.add(hit(s.docs.get(ordinals[ranked[i]]), scores[ranked[i]]));
+        }
+        return hits;
+    }
+
+    private static ProductSearchHit hit(IndexedProduct doc, float score) {
+        return new ProductSearchHit(doc.productId(), doc.name(), doc.category(), doc.price(), doc.vendorId(), score);
+    }
+
+    // Higher score first; ties go to the earlier-indexed product
+    private static boolean ranksHigher(int a, int b, int[] ordinals, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && ordinals[a] < ordinals[b]);
+    }
+
+    private static void siftUp(int[] heap, int at, int[] ordinals, float[] scores) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!ranksHigher(heap[parent], heap[at], ordinals, scores)) {
+                return;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[at];
+            heap[at] = tmp;
+            at = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] ordinals, float[] scores) {
+        int at = 0;
+        while (true) {
+            int weakest = at;
+            int left = 2 * at + 1;
+            int right = left + 1;
+            if (left < size && ranksHigher(heap[weakest], heap[left], ordinals, scores)) {
+                weakest = left;
+            }
+            if (right < size && ranksHigher(heap[weakest], heap[right], ordinals, scores)) {
+                weakest = right;
+            }
+            if (weakest == at) {
+                return;
+            }
+            int tmp = heap[weakest];
+            heap[weakest] = heap[at];
+            heap[at] = tmp;
+            at = weakest;
+        }
+    }
+
+    // Facet counts over all matches, sized by the facet dictionaries rather than the catalogue
+    private static final class FacetCounts {
+        final int[] categoryCounts;
+        final int[] vendorCounts;
+        final int[] priceCounts = new int[PRICE_BUCKETS.length + 1];
+
+        FacetCounts(State s) {
+            categoryCounts = new int[s.categories.size()];
+            vendorCounts = new int[s.vendors.size()];
+        }
+
+        void add(State s, int ordinal) {
+            int category = s.categoryIds[ordinal];
+            if (category >= 0) {
+                categoryCounts[category]++;
+            }
+            int vendor = s.vendorIds[ordinal];
+            if (vendor >= 0) {
+                vendorCounts[vendor]++;
+            }
+            double price = s.prices[ordinal];
+            if (!Double.isNaN(price)) {
+                int bucket = 0;
+                while (bucket < PRICE_BUCKETS.length && price >= PRICE_BUCKETS[bucket]) {
+                    bucket++;
+                }
+                priceCounts[bucket]++;
+            }
+        }
+
+        Map<String, Map<String, Integer>> toMap(State s) {
+            Map<String, Integer> prices = new LinkedHashMap<>();
+            for (int bucket = 0; bucket < priceCounts.length; bucket++) {
+                if (priceCounts[bucket] == 0) {
+                    continue;
+                }
+                String low = bucket == 0 ? "0" : formatPrice(PRICE_BUCKETS[bucket - 1]);
+                String label = bucket == PRICE_BUCKETS.length ? low + "+" : low + "-" + formatPrice(PRICE_BUCKETS[bucket]);
+                prices.put(label, priceCounts[bucket]);
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("category", topValues(categoryCounts, s.categories));
+            facets.put("vendor", topValues(vendorCounts, s.vendors));
+            facets.put("price", prices);
+            return facets;
+        }
+    }
+
+    private static String formatPrice(double price) {
+        return price == Math.floor(price) ? String.valueOf((long) price) : String.valueOf(price);
+    }
+
+    private static Map<String, Integer> topValues(int[] counts, List<?> values) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                ids.add(id);
+            }
+        }
+        ids.sort((a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a])
+                : String.valueOf(values.get(a)).compareTo(String.valueOf(values.get(b))));
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(MAX_FACET_VALUES, ids.size()); i++) {
+            top.put(String.valueOf(values.get(ids.get(i))), counts[ids.get(i)]);
+        }
+        return top;
+    }
+
+    private static ProductSearchResult emptyResult() {
+        return new ProductSearchResult(0, List.of(), Map.of());
+    }
+}
@@ -0,0 +1,10 @@
+package com.swiftlogistics.product_service.search;
+
+/**
+ * Free text plus optional facet filters. A blank text browses every product that
+ * passes the filters. With {@code prefix} the last term also matches as a prefix
+ * (search-as-you-type).
+ */
+public record ProductSearchQuery(String text, String category, Integer vendorId, Double minPrice, Double maxPrice,
+                                 boolean prefix, int page, int size) {
+}
@@ -0,0 +1,86 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.repository.ProductDeletionRepository;
+import com.swiftlogistics.product_service.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Time of the latest change anywhere in the catalogue, used as the validator for
+ * listing ETags and to answer "anything new?" on the changes feed without a query.
+ *
+ * Local writes advance it directly. Changes made by other instances advance it when
+ * their product-changes event arrives. As a fallback for lost events it is re-read
+ * from the database at most once per {@code catalog.version.refresh-ms}.
+ */
+@Component
+public class CatalogVersion implements MessageListener {
+
+    private static final LocalDateTime EMPTY = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ProductRepository productRepository;
+    private final ProductDeletionRepository productDeletionRepository;
+    private final long refreshMs;
+
+    private final AtomicReference<LocalDateTime> latest = new AtomicReference<>(EMPTY);
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long lastRefresh;
+
+    public CatalogVersion(ProductRepository productRepository,
+                          ProductDeletionRepository productDeletionRepository,
+                          @Value("${catalog.version.refresh-ms:5000}") long refreshMs) {
+        this.productRepository = productRepository;
+        this.productDeletionRepository = productDeletionRepository;
+        this.refreshMs = refreshMs;
+    }
+
+    public LocalDateTime current() {
+        if (System.currentTimeMillis() - lastRefresh > refreshMs && refreshing.compareAndSet(false, true)) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                System.out.println("⚠️ Could not refresh catalogue version: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return latest.get();
+    }
+
+    public long epochMicros() {
+        Instant at = current().atZone(ZoneId.systemDefault()).toInstant();
+        return at.getEpochSecond() * 1_000_000 + at.getNano() / 1_000;
+    }
+
+    public void advanceTo(LocalDateTime changedAt) {
+        if (changedAt != null) {
+            latest.accumulateAndGet(changedAt, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        lastRefresh = System.currentTimeMillis();
+        advanceTo(productRepository.findLatestUpdate());
+        advanceTo(productDeletionRepository.findLatestDeletion());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            refresh();
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not refresh catalogue version: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.swiftlogistics.product_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Changes-feed position: base64url of "updatedAt|productId" of the last change delivered
+record ChangeToken(LocalDateTime watermark, int productId) {
+
+    static final ChangeToken START = new ChangeToken(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    String encode() {
+        String raw = watermark + "|" + productId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new ChangeToken(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid changes token", e);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.dto.StockReservationResult;
+import com.swiftlogistics.product_service.model.ReservationStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock for flash-sale products listed in {@code stock.hot.product-ids}.
+ *
+ * Each instance leases a chunk of a hot product's stock (moved out of
+ * products.stock_quantity into a hot_stock_leases row) and sells it from a
+ * {@link StripedStockCounter}, so reservations don't touch the product row at all.
+ * Reservations made from leased stock are queued and written by a single flusher
+ * thread, many per transaction, together with the lease's sold count. A caller is
+ * answered only once its batch has committed, so a crash can lose unanswered
+ * reservations but never sells a unit twice.
+ *
+ * Unsold units (leased - sold) go back to the product when the instance stops, on
+ * its next start, or, if it never comes back, once its lease heartbeat is older
+ * than {@code stock.hot.lease-expiry-ms}. A reclaimed lease can no longer record
+ * sales, so an instance that was only slow fails those reservations instead of
+ * overselling.
+ *
+ * Leased units are not in products.stock_quantity, so product reads (and the
+ * gateway's cached copies) show a hot product up to lease-size units per instance
+ * short of what can still be sold. Sellable stock is stock_quantity plus the sum of
+ * leased - sold over the product's hot_stock_leases rows.
+ */
+@Component
+public class HotStockLedger {
+
+    static final String INSERT_RESERVATION_SQL =
+            "INSERT INTO stock_reservations (reservation_id, status, expires_at, created_at) VALUES (?, ?, ?, ?)";
+    static final String INSERT_LINE_SQL =
+            "INSERT INTO stock_reservation_lines (reservation_id, product_id, quantity) VALUES (?, ?, ?)";
+
+    // One lease's units; replaced as a whole when the lease is lost
+    static final class Lease {
+        final String leaseId;
+        final int productId;
+        final StripedStockCounter counter;
+
+        Lease(String leaseId, int productId, int stripes) {
+            this.leaseId = leaseId;
+            this.productId = productId;
+            this.counter = new StripedStockCounter(stripes);
+        }
+    }
+
+    private static final class Sku {
+        final int productId;
+        final AtomicReference<Lease> lease = new AtomicReference<>();
+        final ReentrantLock refillLock = new ReentrantLock();
+        // Set when the product had nothing left to lease, so takes fail without a query until then
+        volatile long soldOutUntil;
+
+        Sku(int productId) {
+            this.productId = productId;
+        }
+    }
+
+    record Units(Lease lease, int productId, int quantity) {}
+
+    // Units taken for one reservation; shortIds is non-empty when nothing was taken
+    record Taken(List<Units> units, List<Integer> shortIds) {
+        static final Taken NONE = new Taken(List.of(), List.of());
+
+        boolean covers(int productId) {
+            for (Units unit : units) {
+                if (unit.productId() == productId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Pending(String reservationId, Taken taken, LocalDateTime createdAt, LocalDateTime expiresAt,
+                           CompletableFuture<StockReservationResult> result) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, Sku> skus = new HashMap<>();
+    private final String instanceId;
+    private final long leaseSize;
+    private final long refillBelow;
+    private final int stripes;
+    private final int maxBatch;
+    private final long flushTimeoutMs;
+    private final long heartbeatMs;
+    private final long leaseExpiryMs;
+    private final long soldOutRecheckMs;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private Thread flusher;
+    private volatile boolean running;
+    private long lastHeartbeat;
+    private long lastStaleCheck;
+
+    public HotStockLedger(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${stock.hot.product-ids:}") List<Integer> productIds,
+                          @Value("${stock.hot.instance-id:${HOSTNAME:local}-${server.port:8082}}") String instanceId,
+                          @Value("${stock.hot.lease-size:1000}") long leaseSize,
+                          @Value("${stock.hot.refill-below:250}") long refillBelow,
+                          @Value("${stock.hot.stripes:16}") int stripes,
+                          @Value("${stock.hot.max-batch:1024}") int maxBatch,
+                          @Value("${stock.hot.flush-timeout-ms:5000}") long flushTimeoutMs,
+                          @Value("${stock.hot.heartbeat-ms:5000}") long heartbeatMs,
+                          @Value("${stock.hot.lease-expiry-ms:30000}") long leaseExpiryMs,
+                          @Value("${stock.hot.sold-out-recheck-ms:1000}") long soldOutRecheckMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        for (Integer productId : productIds) {
+            skus.put(productId, new Sku(productId));
+        }
+        this.instanceId = instanceId;
+        this.leaseSize = leaseSize;
+        this.refillBelow = refillBelow;
+        this.stripes = stripes;
+        this.maxBatch = maxBatch;
+        this.flushTimeoutMs = flushTimeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        this.leaseExpiryMs = leaseExpiryMs;
+        this.soldOutRecheckMs = soldOutRecheckMs;
+    }
+
+    // Hot products are served from memory only while the ledger is running
+    public boolean isHot(int productId) {
+        return running && skus.containsKey(productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (skus.isEmpty()) {
+            return;
+        }
+        // Whatever a previous run of this instance (or a dead one) still holds goes back first
+        int reclaimed = reclaimLeases(true);
+        System.out.println("🔥 Hot stock for productIds=" + skus.keySet() + " (instance " + instanceId
+                + ", reclaimed " + reclaimed + " old lease(s))");
+        for (Sku sku : skus.values()) {
+            refill(sku, null, 1);
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("hot-stock-flusher").daemon().start(this::flushLoop);
+    }
+
+    // Reserves every item from leased stock and returns once the reservation is committed
+    public StockReservationResult reserve(String reservationId, SortedMap<Integer, Integer> items,
+                                          LocalDateTime now, LocalDateTime expiresAt) {
+        Taken taken = take(items);
+        if (!taken.shortIds().isEmpty()) {
+            return new StockReservationResult(reservationId, null, null, taken.shortIds());
+        }
+        CompletableFuture<StockReservationResult> result = new CompletableFuture<>();
+        queue.add(new Pending(reservationId, taken, now, expiresAt, result));
+        try {
+            return result.get(flushTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Could not record reservation " + reservationId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while recording reservation " + reservationId, e);
+        } catch (TimeoutException e) {
+            // Outcome unknown; a retry with the same reservationId returns it if it was written
+            throw new RuntimeException("Reservation " + reservationId + " not confirmed within " + flushTimeoutMs + "ms");
+        }
+    }
+
+    // All-or-nothing take from leased stock, leasing more from the product when a lease runs dry
+    Taken take(SortedMap<Integer, Integer> items) {
+        List<Units> units = new ArrayList<>(items.size());
+        List<Integer> shortIds = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> item : items.entrySet()) {
+            Units got = takeOne(skus.get(item.getKey()), item.getValue());
+            if (got == null) {
+                shortIds.add(item.getKey());
+            } else {
+                units.add(got);
+            }
+        }
+        if (!shortIds.isEmpty()) {
+            giveBack(new Taken(units, List.of()));
+            return new Taken(List.of(), shortIds);
+        }
+        return new Taken(units, List.of());
+    }
+
+    void giveBack(Taken taken) {
+        for (Units unit : taken.units()) {
+            unit.lease().counter.add(unit.quantity());
+        }
+    }
+
+    // Adds taken units to their leases' sold counts; must run inside the reservation's transaction
+    void recordSold(Taken taken, LocalDateTime now) {
+        Map<Lease, Long> sold = new LinkedHashMap<>();
+        for (Units unit : taken.units()) {
+            sold.merge(unit.lease(), (long) unit.quantity(), Long::sum);
+        }
+        List<Lease> leases = new ArrayList<>(sold.keySet());
+        List<Object[]> updates = new ArrayList<>(leases.size());
+        for (Lease lease : leases) {
+            long quantity = sold.get(lease);
+            updates.add(new Object[]{quantity, Timestamp.valueOf(now), lease.leaseId, quantity});
+        }
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE hot_stock_leases SET sold = sold + ?, heartbeat_at = ? "
+                + "WHERE lease_id = ? AND sold + ? <= leased", updates);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Lease lost = leases.get(i);
+                skus.get(lost.productId).lease.compareAndSet(lost, null);
+                throw new IllegalStateException("Stock lease " + lost.leaseId + " for productId=" + lost.productId
+                        + " was reclaimed");
+            }
+        }
+    }
+
+    private Units takeOne(Sku sku, int quantity) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Lease lease = sku.lease.get();
+            if (lease != null && lease.counter.tryTake(quantity)) {
+                return new Units(lease, sku.productId, quantity);
+            }
+            if (!refill(sku, lease, quantity)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Leases at least wanted more units (normally lease-size). Returns false if the product has none left.
+    private boolean refill(Sku sku, Lease seen, long wanted) {
+        if (System.currentTimeMillis() < sku.soldOutUntil) {
+            return false;
+        }
+        sku.refillLock.lock();
+        try {
+            Lease current = sku.lease.get();
+            if (current != seen && current != null) {
+                // Another thread refilled or replaced the lease while we waited
+                return true;
+            }
+            if (System.currentTimeMillis() < sku.soldOutUntil) {
+                return false;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            Lease[] created = new Lease[1];
+            Long leased = transactionTemplate.execute(tx -> {
+                List<Integer> stock = jdbcTemplate.queryForList(
+                        "SELECT stock_quantity FROM products WHERE product_id = ? FOR UPDATE", Integer.class, sku.productId);
+                long available = stock.isEmpty() || stock.get(0) == null ? 0 : stock.get(0);
+                long take = Math.min(available, Math.max(leaseSize, wanted));
+                if (take <= 0) {
+                    return 0L;
+                }
+                jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1, "
+                        + "updated_at = ? WHERE product_id = ?", take, Timestamp.valueOf(now), sku.productId);
+                int updated = current == null ? 0 : jdbcTemplate.update(
+                        "UPDATE hot_stock_leases SET leased = leased + ?, heartbeat_at = ? WHERE lease_id = ?",
+                        take, Timestamp.valueOf(now), current.leaseId);
+                if (updated == 0) {
+                    created[0] = new Lease(UUID.randomUUID().toString(), sku.productId, stripes);
+                    jdbcTemplate.update("INSERT INTO hot_stock_leases (lease_id, product_id, instance_id, leased, sold, "
+                                    + "heartbeat_at) VALUES (?, ?, ?, ?, 0, ?)",
+                            created[0].leaseId, sku.productId, instanceId, take, Timestamp.valueOf(now));
+                }
+                return take;
+            });
+            if (leased == null || leased == 0) {
+                sku.soldOutUntil = System.currentTimeMillis() + soldOutRecheckMs;
+                return false;
+            }
+            if (created[0] != null) {
+                created[0].counter.add(leased);
+                sku.lease.set(created[0]);
+            } else {
+                current.counter.add(leased);
+            }
+            return true;
+        } finally {
+            sku.refillLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    flush(batch);
+                }
+                maintain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                System.out.println("⚠️ Hot stock flusher: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        for (Pending pending : queue) {
+            fail(pending, new IllegalStateException("Hot stock ledger is stopped"));
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> write(batch));
+            for (Pending pending : batch) {
+                pending.result().complete(new StockReservationResult(pending.reservationId(), ReservationStatus.HELD,
+                        pending.expiresAt(), List.of()));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // One bad reservation (say a duplicate id) shouldn't fail the rest: retry them one by one
+            for (Pending pending : batch) {
+                flush(List.of(pending));
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> headers = new ArrayList<>(batch.size());
+        List<Object[]> lines = new ArrayList<>(batch.size());
+        List<Units> sold = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            headers.add(new Object[]{pending.reservationId(), ReservationStatus.HELD.name(),
+                    Timestamp.valueOf(pending.expiresAt()), Timestamp.valueOf(pending.createdAt())});
+            for (Units unit : pending.taken().units()) {
+                lines.add(new Object[]{pending.reservationId(), unit.productId(), unit.quantity()});
+                sold.add(unit);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_RESERVATION_SQL, headers);
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, lines);
+        recordSold(new Taken(sold, List.of()), now);
+    }
+
+    private void fail(Pending pending, RuntimeException e) {
+        giveBack(pending.taken());
+        pending.result().completeExceptionally(e);
+    }
+
+    // Runs on the flusher between batches: tops up leases, heartbeats and reclaims dead instances' leases
+    private void maintain() {
+        for (Sku sku : skus.values()) {
+            Lease lease = sku.lease.get();
+            if (lease == null || lease.counter.sum() < refillBelow) {
+                refill(sku, lease, 1);
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat >= heartbeatMs) {
+            lastHeartbeat = now;
+            jdbcTemplate.update("UPDATE hot_stock_leases SET heartbeat_at = ? WHERE instance_id = ?",
+                    Timestamp.valueOf(LocalDateTime.now()), instanceId);
+        }
+        if (now - lastStaleCheck >= leaseExpiryMs / 2) {
+            lastStaleCheck = now;
+            int reclaimed = reclaimLeases(false);
+            if (reclaimed > 0) {
+                System.out.println("♻️ Reclaimed " + reclaimed + " stale hot stock lease(s)");
+            }
+        }
+    }
+
+    // Puts unsold leased units back on the product and deletes the lease, for this
+    // instance's own leases (ours = true) and for any lease whose heartbeat has expired
+    private int reclaimLeases(boolean ours) {
+        LocalDateTime staleBefore = LocalDateTime.now().minusNanos(leaseExpiryMs * 1_000_000);
+        List<String> leaseIds = ours
+                ? jdbcTemplate.queryForList("SELECT lease_id FROM hot_stock_leases WHERE instance_id = ? OR heartbeat_at < ?",
+                        String.class, instanceId, Timestamp.valueOf(staleBefore))
+                : jdbcTemplate.queryForList("SELECT lease_id FROM hot_stock_leases WHERE instance_id <> ? AND heartbeat_at < ?",
+                        String.class, instanceId, Timestamp.valueOf(staleBefore));
+        for (String leaseId : leaseIds) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                List<long[]> rows = jdbcTemplate.query(
+                        "SELECT product_id, leased, sold FROM hot_stock_leases WHERE lease_id = ? FOR UPDATE",
+                        (rs, i) -> new long[]{rs.getLong("product_id"), rs.getLong("leased"), rs.getLong("sold")},
+                        leaseId);
+                if (rows.isEmpty()) {
+                    return;
+                }
+                long[] lease = rows.get(0);
+                long unsold = lease[1] - lease[2];
+                if (unsold > 0) {
+                    jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, "
+                                    + "updated_at = ? WHERE product_id = ?",
+                            unsold, Timestamp.valueOf(LocalDateTime.now()), lease[0]);
+                }
+                jdbcTemplate.update("DELETE FROM hot_stock_leases WHERE lease_id = ?", leaseId);
+            });
+        }
+        return leaseIds.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Sku sku : skus.values()) {
+            sku.lease.set(null);
+        }
+        reclaimLeases(true);
+    }
+}
@@ -0,0 +1,46 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.dto.ProductSummary;
+import com.swiftlogistics.product_service.repository.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Continuation token: base64url of "sort|asc-or-desc|productId|sortValue" for the last row served
+record ProductCursor(ProductSort sort, boolean descending, int productId, Object value) {
+
+    static ProductCursor after(ProductSummary last, ProductSort sort, boolean descending) {
+        Object value = switch (sort) {
+            case ID -> null;
+            case NAME -> last.getProductName();
+            case PRICE -> last.getProductPrice();
+            case CREATED_AT -> last.getCreatedAt();
+        };
+        return new ProductCursor(sort, descending, last.getProductId(), value);
+    }
+
+    String encode() {
+        String raw = sort.name() + "|" + (descending ? "desc" : "asc") + "|" + productId + "|" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            boolean descending = "desc".equals(parts[1]);
+            int productId = Integer.parseInt(parts[2]);
+            Object value = switch (sort) {
+                case ID -> null;
+                case NAME -> parts[3];
+                case PRICE -> Double.valueOf(parts[3]);
+                case CREATED_AT -> LocalDateTime.parse(parts[3]);
+            };
+            return new ProductCursor(sort, descending, productId, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -1,10 +1,26 @@
 package com.swiftlogistics.product_service.service;
 
+import com.swiftlogistics.product_service.events.ProductChangedEvent;
+import com.swiftlogistics.product_service.events.ProductEventPublisher;
+import com.swiftlogistics.product_service.dto.ProductChanges;
+import com.swiftlogistics.product_service.dto.ProductPage;
+import com.swiftlogistics.product_service.dto.ProductSearchResult;
+import com.swiftlogistics.product_service.dto.ProductSummary;
 import com.swiftlogistics.product_service.model.Product;
+import com.swiftlogistics.product_service.model.ProductDeletion;
+import com.swiftlogistics.product_service.repository.ProductDeletionRepository;
 import com.swiftlogistics.product_service.repository.ProductRepository;
+import com.swiftlogistics.product_service.repository.ProductSort;
+import com.swiftlogistics.product_service.search.ProductSearchIndex;
+import com.swiftlogistics.product_service.search.ProductSearchQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,29 +28,108 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProductService{
     private final ProductRepository productRepository;
+    private final ProductEventPublisher productEventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductDeletionRepository productDeletionRepository;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+
+    // Changes younger than this are held back so a slower concurrent commit can't be skipped
+    @Value("${catalog.changes.settle-ms:2000}")
+    private long changesSettleMs;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_OFFSET = 10_000;
 
     public Product addProduct(Product product){
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productSearchIndex.index(saved);
+        catalogVersion.advanceTo(saved.getUpdatedAt());
+        productEventPublisher.publishProductChanged(new ProductChangedEvent(saved.getProductId(), "CREATED"));
+        return saved;
+
+    }
+    // Bounded listing: at most MAX_PAGE_SIZE summary rows per call, continued by keyset cursor
+    public ProductPage getProductPage(String category, Integer vendorId, String sort, String cursor, int page, int size){
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String[] sortParts = sort.split(",");
+        ProductSort productSort = ProductSort.fromProperty(sortParts[0].trim());
+        boolean descending = sortParts.length > 1 && "desc".equalsIgnoreCase(sortParts[1].trim());
+
+        ProductCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = ProductCursor.decode(cursor);
+            if (after.sort() != productSort || after.descending() != descending) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort");
+            }
+        } else if ((long) page * pageSize > MAX_OFFSET) {
+            throw new IllegalArgumentException("Use the cursor to page past " + MAX_OFFSET + " products");
+        }
+
+        // One extra row tells whether another page exists
+        List<ProductSummary> rows = productRepository.findSummaries(category, vendorId, productSort, descending,
+                after == null ? null : after.value(), after == null ? null : after.productId(),
+                Math.max(page, 0) * pageSize, pageSize + 1);
 
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = ProductCursor.after(rows.get(pageSize - 1), productSort, descending).encode();
+        }
+        return new ProductPage(rows, nextCursor);
+    }
+
+    // Changes since the token, oldest first. When the token is already at the catalogue's
+    // latest change this returns without touching the database.
+    public ProductChanges getChangesSince(String since, int size){
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        ChangeToken from = ChangeToken.decode(since);
+        LocalDateTime upTo = LocalDateTime.now().minus(Duration.ofMillis(changesSettleMs));
+        if (!from.watermark().isBefore(catalogVersion.current()) || !from.watermark().isBefore(upTo)) {
+            return new ProductChanges(List.of(), List.of(), from.encode(), false);
+        }
+
+        List<ProductSummary> changed = productRepository.findChangedSince(
+                from.watermark(), from.productId(), upTo, Limit.of(pageSize + 1));
+        boolean hasMore = changed.size() > pageSize;
+        ChangeToken next;
+        if (hasMore) {
+            changed = changed.subList(0, pageSize);
+            ProductSummary last = changed.get(pageSize - 1);
+            next = new ChangeToken(last.getUpdatedAt(), last.getProductId());
+        } else {
+            // Everything up to upTo has been delivered
+            next = new ChangeToken(upTo, Integer.MAX_VALUE);
+        }
+        List<Integer> deleted = productDeletionRepository.findProductIdsDeletedBetween(from.watermark(), next.watermark());
+        return new ProductChanges(changed, deleted, next.encode(), hasMore);
     }
-    public List<Product> getAllProducts(){
 
-        return productRepository.findAll();
+    public Optional<ProductRepository.ProductVersionView> getProductVersion(int id){
+        return productRepository.findVersionByProductId(id);
     }
 
     public Optional<Product> getProductById(int id){
         return productRepository.findById(id);
     }
-    public List<Product> getProductsByVendor(int userId){
-        return productRepository.findByUserId(userId);
+    public List<Product> getProductsByIds(List<Integer> ids){
+        return productRepository.findAllById(ids);
     }
-    public List<Product> getProductByCategory(String productCategory){
-        return productRepository.findByProductCategory(productCategory);
+    public ProductSearchResult searchProducts(ProductSearchQuery query){
+        return productSearchIndex.search(query);
     }
     public void deleteProduct(int id){
 
-        productRepository.deleteById(id);
+        // Tombstone in the same transaction so the changes feed reports the delete
+        LocalDateTime deletedAt = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(tx -> {
+            productRepository.deleteById(id);
+            productDeletionRepository.save(new ProductDeletion(id, deletedAt));
+        });
+        productSearchIndex.remove(id);
+        catalogVersion.advanceTo(deletedAt);
+        productEventPublisher.publishProductChanged(new ProductChangedEvent(id, "DELETED"));
     }
     public Product updateProduct(int id, Product updatedProduct){
         Product existing = productRepository.findById(id).orElseThrow();
@@ -59,7 +154,11 @@ public class ProductService{
             existing.setProductDescription(updatedProduct.getProductDescription());
         }
 
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        productSearchIndex.index(saved);
+        catalogVersion.advanceTo(saved.getUpdatedAt());
+        productEventPublisher.publishProductChanged(new ProductChangedEvent(saved.getProductId(), "UPDATED"));
+        return saved;
 
     }
 
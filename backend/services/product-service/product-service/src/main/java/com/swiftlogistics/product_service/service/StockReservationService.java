@@ -0,0 +1,355 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.client.OrderLookupClient;
+import com.swiftlogistics.product_service.dto.StockReservationRequest;
+import com.swiftlogistics.product_service.dto.StockReservationResult;
+import com.swiftlogistics.product_service.model.ReservationStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Takes stock off products for a whole order in one short transaction. Each product
+ * is decremented with a conditional UPDATE (quantity >= requested), so there is no
+ * read-then-write and concurrent checkouts for the same product only queue on the
+ * row lock for the duration of that statement and the commit. Rows are updated in
+ * product id order so two orders sharing products can't deadlock.
+ *
+ * Products flagged as hot are served from HotStockLedger's in-memory leases instead;
+ * their released units go back to the product row, where the ledger leases them again.
+ *
+ * A reservation is HELD until the order commits it. HELD reservations that pass
+ * their expiry are released by the sweeper unless order-service, which owns the
+ * orders, has one for them. A failed order gives its stock back by releasing its
+ * reservation by id, HELD or COMMITTED; a commit that arrives after that is refused,
+ * so the stock can't be taken again. COMMITTED reservations whose order is missing
+ * are released by the reconciler.
+ */
+@Service
+public class StockReservationService {
+
+    private static final String DECREMENT_SQL = "UPDATE products SET stock_quantity = stock_quantity - ?, "
+            + "version = version + 1, updated_at = ? WHERE product_id = ? AND stock_quantity >= ?";
+    private static final String INCREMENT_SQL = "UPDATE products SET stock_quantity = stock_quantity + ?, "
+            + "version = version + 1, updated_at = ? WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final HotStockLedger hotStockLedger;
+    private final OrderLookupClient orderLookupClient;
+    private final int defaultTtlSeconds;
+    private final int maxTtlSeconds;
+    private final int sweepBatchSize;
+    private final int reconcileGraceSeconds;
+
+    public StockReservationService(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   CatalogVersion catalogVersion,
+                                   HotStockLedger hotStockLedger,
+                                   OrderLookupClient orderLookupClient,
+                                   @Value("${stock.reservation.ttl-seconds:600}") int defaultTtlSeconds,
+                                   @Value("${stock.reservation.max-ttl-seconds:3600}") int maxTtlSeconds,
+                                   @Value("${stock.reservation.sweep-batch-size:500}") int sweepBatchSize,
+                                   @Value("${stock.reservation.reconcile-grace-seconds:60}") int reconcileGraceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.hotStockLedger = hotStockLedger;
+        this.orderLookupClient = orderLookupClient;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.sweepBatchSize = sweepBatchSize;
+        this.reconcileGraceSeconds = reconcileGraceSeconds;
+    }
+
+    // All-or-nothing: if any product is short, nothing is reserved and the short ids are returned.
+    // Repeating a request with the same reservationId returns the existing reservation.
+    public StockReservationResult reserve(StockReservationRequest request) {
+        String reservationId = request.getReservationId();
+        if (reservationId == null || reservationId.isBlank() || reservationId.length() > 64) {
+            throw new IllegalArgumentException("reservationId is required (max 64 characters)");
+        }
+        SortedMap<Integer, Integer> quantities = mergeItems(request.getItems());
+        int ttl = request.getTtlSeconds() == null ? defaultTtlSeconds : request.getTtlSeconds();
+        if (ttl <= 0 || ttl > maxTtlSeconds) {
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + maxTtlSeconds);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(ttl);
+        StockReservationResult result = hasHotProduct(quantities)
+                ? reserveWithHotStock(reservationId, quantities, now, expiresAt)
+                : reserveInDatabase(reservationId, quantities, HotStockLedger.Taken.NONE, now, expiresAt);
+        if (result.isReserved()) {
+            catalogVersion.advanceTo(now);
+        }
+        return result;
+    }
+
+    private boolean hasHotProduct(SortedMap<Integer, Integer> quantities) {
+        for (Integer productId : quantities.keySet()) {
+            if (hotStockLedger.isHot(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Hot products come out of the in-memory lease; only the other lines of a mixed order touch product rows
+    private StockReservationResult reserveWithHotStock(String reservationId, SortedMap<Integer, Integer> quantities,
+                                                       LocalDateTime now, LocalDateTime expiresAt) {
+        SortedMap<Integer, Integer> hot = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (hotStockLedger.isHot(productId)) {
+                hot.put(productId, quantity);
+            }
+        });
+        if (hot.size() == quantities.size()) {
+            try {
+                return hotStockLedger.reserve(reservationId, quantities, now, expiresAt);
+            } catch (DuplicateKeyException e) {
+                // A retry of a reservation that was already made
+                return existing(reservationId);
+            }
+        }
+        HotStockLedger.Taken taken = hotStockLedger.take(hot);
+        if (!taken.shortIds().isEmpty()) {
+            return new StockReservationResult(reservationId, null, null, taken.shortIds());
+        }
+        return reserveInDatabase(reservationId, quantities, taken, now, expiresAt);
+    }
+
+    private StockReservationResult reserveInDatabase(String reservationId, SortedMap<Integer, Integer> quantities,
+                                                     HotStockLedger.Taken hotTaken, LocalDateTime now,
+                                                     LocalDateTime expiresAt) {
+        StockReservationResult result;
+        try {
+            result = transactionTemplate.execute(tx -> {
+                jdbcTemplate.update(HotStockLedger.INSERT_RESERVATION_SQL,
+                        reservationId, ReservationStatus.HELD.name(), Timestamp.valueOf(expiresAt), Timestamp.valueOf(now));
+
+                // Lines first and the decrements last, so row locks on hot products are held only until commit
+                List<Object[]> lines = new ArrayList<>();
+                List<Object[]> decrements = new ArrayList<>();
+                List<Integer> decremented = new ArrayList<>();
+                for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                    lines.add(new Object[]{reservationId, entry.getKey(), entry.getValue()});
+                    if (!hotTaken.covers(entry.getKey())) {
+                        decrements.add(new Object[]{entry.getValue(), Timestamp.valueOf(now), entry.getKey(), entry.getValue()});
+                        decremented.add(entry.getKey());
+                    }
+                }
+                jdbcTemplate.batchUpdate(HotStockLedger.INSERT_LINE_SQL, lines);
+                int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, decrements);
+
+                List<Integer> insufficient = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        insufficient.add(decremented.get(i));
+                    }
+                }
+                if (!insufficient.isEmpty()) {
+                    tx.setRollbackOnly();
+                    return new StockReservationResult(reservationId, null, null, insufficient);
+                }
+                if (!hotTaken.units().isEmpty()) {
+                    hotStockLedger.recordSold(hotTaken, now);
+                }
+                return new StockReservationResult(reservationId, ReservationStatus.HELD, expiresAt, List.of());
+            });
+        } catch (DuplicateKeyException e) {
+            hotStockLedger.giveBack(hotTaken);
+            // A retry of a reservation that was already made
+            return existing(reservationId);
+        } catch (RuntimeException e) {
+            hotStockLedger.giveBack(hotTaken);
+            throw e;
+        }
+        if (!result.isReserved()) {
+            hotStockLedger.giveBack(hotTaken);
+        }
+        return result;
+    }
+
+    // Attaches the reservation to its order so it no longer expires. Repeating it is a no-op.
+    // A released or expired reservation can't be committed (IllegalStateException, answered 409).
+    public StockReservationResult commit(String reservationId, int orderId) {
+        int updated = jdbcTemplate.update("UPDATE stock_reservations SET status = ?, order_id = ?, expires_at = NULL "
+                        + "WHERE reservation_id = ? AND status = ?",
+                ReservationStatus.COMMITTED.name(), orderId, reservationId, ReservationStatus.HELD.name());
+        if (updated == 0) {
+            StockReservationResult current = existing(reservationId);
+            Integer committedOrder = orderIdOf(reservationId);
+            if (current.getStatus() != ReservationStatus.COMMITTED || committedOrder == null || committedOrder != orderId) {
+                throw new IllegalStateException("Reservation " + reservationId + " is " + current.getStatus() + ", cannot commit");
+            }
+        }
+        return new StockReservationResult(reservationId, ReservationStatus.COMMITTED, null, List.of());
+    }
+
+    // Puts the stock back. Safe to call more than once; only the first call restocks.
+    public StockReservationResult release(String reservationId) {
+        return release(reservationId, ReservationStatus.RELEASED, EnumSet.of(ReservationStatus.HELD, ReservationStatus.COMMITTED));
+    }
+
+    // Releases what is committed to an order. Only for OrderCreated events that predate the
+    // reservation id. A reservation order-service has not committed yet has no order_id and is not found.
+    public int releaseForOrder(int orderId) {
+        List<String> reservationIds = jdbcTemplate.queryForList(
+                "SELECT reservation_id FROM stock_reservations WHERE order_id = ? AND status = ?",
+                String.class, orderId, ReservationStatus.COMMITTED.name());
+        for (String reservationId : reservationIds) {
+            release(reservationId);
+        }
+        return reservationIds.size();
+    }
+
+    // A HELD reservation whose order exists is only waiting for order-service's commit, so it is
+    // committed instead of expired. If order-service can't be asked, nothing is expired this round.
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep-interval-ms:5000}")
+    public void expireReservations() {
+        List<String> expired;
+        do {
+            expired = jdbcTemplate.queryForList("SELECT reservation_id FROM stock_reservations "
+                            + "WHERE status = ? AND expires_at < ? ORDER BY expires_at LIMIT ?",
+                    String.class, ReservationStatus.HELD.name(), Timestamp.valueOf(LocalDateTime.now()), sweepBatchSize);
+            if (expired.isEmpty()) {
+                return;
+            }
+            Map<String, Integer> orders;
+            try {
+                orders = orderLookupClient.ordersFor(expired);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Could not ask order-service about " + expired.size()
+                        + " expired reservation(s), expiry postponed: " + e.getMessage());
+                return;
+            }
+            int released = 0;
+            for (String reservationId : expired) {
+                Integer orderId = orders.get(reservationId);
+                if (orderId == null) {
+                    release(reservationId, ReservationStatus.EXPIRED, EnumSet.of(ReservationStatus.HELD));
+                    released++;
+                } else {
+                    commit(reservationId, orderId);
+                    markVerified(reservationId);
+                }
+            }
+            System.out.println("⏱️ Expired " + released + " stock reservation(s), committed "
+                    + (expired.size() - released) + " whose order exists");
+        } while (expired.size() == sweepBatchSize);
+    }
+
+    // COMMITTED reservations are checked once against order-service; one whose order does not
+    // exist (e.g. the order's transaction rolled back after the commit) gets its stock back.
+    @Scheduled(fixedDelayString = "${stock.reservation.reconcile-interval-ms:60000}")
+    public void reconcileCommitted() {
+        List<Map<String, Object>> unverified;
+        do {
+            LocalDateTime settled = LocalDateTime.now().minusSeconds(reconcileGraceSeconds);
+            unverified = jdbcTemplate.queryForList("SELECT reservation_id, order_id FROM stock_reservations "
+                            + "WHERE status = ? AND verified_at IS NULL AND created_at < ? ORDER BY created_at LIMIT ?",
+                    ReservationStatus.COMMITTED.name(), Timestamp.valueOf(settled), sweepBatchSize);
+            if (unverified.isEmpty()) {
+                return;
+            }
+            List<String> reservationIds = unverified.stream().map(row -> (String) row.get("reservation_id")).toList();
+            Map<String, Integer> orders;
+            try {
+                orders = orderLookupClient.ordersFor(reservationIds);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Could not ask order-service about committed reservations: " + e.getMessage());
+                return;
+            }
+            int orphaned = 0;
+            for (Map<String, Object> row : unverified) {
+                String reservationId = (String) row.get("reservation_id");
+                Integer orderId = orders.get(reservationId);
+                if (orderId != null && orderId.equals(row.get("order_id"))) {
+                    markVerified(reservationId);
+                } else {
+                    release(reservationId, ReservationStatus.RELEASED, EnumSet.of(ReservationStatus.COMMITTED));
+                    orphaned++;
+                }
+            }
+            if (orphaned > 0) {
+                System.out.println("♻️ Released " + orphaned + " committed reservation(s) without an order");
+            }
+        } while (unverified.size() == sweepBatchSize);
+    }
+
+    private void markVerified(String reservationId) {
+        jdbcTemplate.update("UPDATE stock_reservations SET verified_at = ? WHERE reservation_id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), reservationId);
+    }
+
+    private StockReservationResult release(String reservationId, ReservationStatus to, Set<ReservationStatus> from) {
+        LocalDateTime now = LocalDateTime.now();
+        Boolean released = transactionTemplate.execute(tx -> {
+            // The status change is the guard: whoever flips it restocks, a racing commit or second release gets 0 rows
+            List<String> fromNames = from.stream().map(Enum::name).toList();
+            String placeholders = String.join(", ", Collections.nCopies(fromNames.size(), "?"));
+            List<Object> args = new ArrayList<>(List.of(to.name(), reservationId));
+            args.addAll(fromNames);
+            int updated = jdbcTemplate.update("UPDATE stock_reservations SET status = ?, expires_at = NULL "
+                    + "WHERE reservation_id = ? AND status IN (" + placeholders + ")", args.toArray());
+            if (updated == 0) {
+                return false;
+            }
+            List<Object[]> increments = jdbcTemplate.query(
+                    "SELECT product_id, quantity FROM stock_reservation_lines WHERE reservation_id = ? ORDER BY product_id",
+                    (rs, i) -> new Object[]{rs.getInt("quantity"), Timestamp.valueOf(now), rs.getInt("product_id")},
+                    reservationId);
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, increments);
+            return true;
+        });
+        if (Boolean.TRUE.equals(released)) {
+            catalogVersion.advanceTo(now);
+            return new StockReservationResult(reservationId, to, null, List.of());
+        }
+        return existing(reservationId);
+    }
+
+    private StockReservationResult existing(String reservationId) {
+        List<StockReservationResult> rows = jdbcTemplate.query(
+                "SELECT status, expires_at FROM stock_reservations WHERE reservation_id = ?",
+                (rs, i) -> {
+                    Timestamp expiresAt = rs.getTimestamp("expires_at");
+                    return new StockReservationResult(reservationId, ReservationStatus.valueOf(rs.getString("status")),
+                            expiresAt == null ? null : expiresAt.toLocalDateTime(), List.of());
+                },
+                reservationId);
+        if (rows.isEmpty()) {
+            throw new NoSuchElementException("Reservation not found: " + reservationId);
+        }
+        return rows.get(0);
+    }
+
+    private Integer orderIdOf(String reservationId) {
+        return jdbcTemplate.queryForObject("SELECT order_id FROM stock_reservations WHERE reservation_id = ?",
+                Integer.class, reservationId);
+    }
+
+    // Same product on several lines is reserved as one, sorted by id for a fixed lock order
+    private static SortedMap<Integer, Integer> mergeItems(List<StockReservationRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        SortedMap<Integer, Integer> quantities = new TreeMap<>();
+        for (StockReservationRequest.Item item : items) {
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for productId=" + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
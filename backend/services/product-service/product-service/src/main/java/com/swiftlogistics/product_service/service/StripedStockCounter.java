@@ -0,0 +1,96 @@
+package com.swiftlogistics.product_service.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Units of one product split over several cells so concurrent takes mostly CAS on
+ * different cache lines. A take starts at the calling thread's home cell and moves on
+ * to the others only when that runs dry. Every decrement is a CAS that checks the
+ * cell still holds enough, so the total can never go below zero.
+ */
+class StripedStockCounter {
+
+    // Cells are 16 longs (128 bytes) apart so neighbouring stripes never share a cache line
+    private static final int PAD = 16;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    StripedStockCounter(int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PAD);
+    }
+
+    // Takes all of quantity or nothing
+    boolean tryTake(long quantity) {
+        int home = home();
+        long needed = quantity;
+        long[] taken = null;
+        for (int i = 0; i < stripes && needed > 0; i++) {
+            int stripe = (home + i) % stripes;
+            long got = takeUpTo(stripe, needed);
+            if (got > 0) {
+                if (got == needed && taken == null) {
+                    return true;
+                }
+                if (taken == null) {
+                    taken = new long[stripes];
+                }
+                taken[stripe] += got;
+                needed -= got;
+            }
+        }
+        if (needed == 0) {
+            return true;
+        }
+        // Not enough across all stripes: put back what was taken on the way
+        if (taken != null) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (taken[stripe] > 0) {
+                    cells.addAndGet(stripe * PAD, taken[stripe]);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Spreads units evenly over the stripes
+    void add(long units) {
+        long share = units / stripes;
+        long remainder = units % stripes;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            long amount = share + (stripe < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.addAndGet(stripe * PAD, amount);
+            }
+        }
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            sum += cells.get(stripe * PAD);
+        }
+        return sum;
+    }
+
+    private long takeUpTo(int stripe, long wanted) {
+        int index = stripe * PAD;
+        while (true) {
+            long available = cells.get(index);
+            if (available == 0) {
+                return 0;
+            }
+            long take = Math.min(available, wanted);
+            if (cells.compareAndSet(index, available, available - take)) {
+                return take;
+            }
+        }
+    }
+
+    private int home() {
+        long id = Thread.currentThread().threadId();
+        // Fibonacci hashing spreads sequential thread ids over the stripes
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33) % stripes;
+    }
+}
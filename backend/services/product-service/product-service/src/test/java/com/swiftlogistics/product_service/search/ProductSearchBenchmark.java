@@ -0,0 +1,112 @@
+package com.swiftlogistics.product_service.search;
+
+import com.swiftlogistics.product_service.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index build and query throughput of ProductSearchIndex on a synthetic catalogue.
+ * Not run by Surefire; start it with
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.swiftlogistics.product_service.search.ProductSearchBenchmark
+ *
+ * and override the catalogue size with -Dbenchmark.products=100000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ProductSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {"red", "blue", "black", "white", "green", "wireless", "compact",
+            "premium", "organic", "vintage", "portable", "smart", "classic", "leather", "steel", "bamboo"};
+    private static final String[] NOUNS = {"headphones", "keyboard", "backpack", "bottle", "lamp", "speaker",
+            "jacket", "sneakers", "blender", "camera", "charger", "notebook", "tent", "watch", "wallet", "mug"};
+    private static final String[] CATEGORIES = {"Electronics", "Fashion", "Home", "Outdoor", "Kitchen", "Office"};
+
+    @Param("1000000")
+    private int products;
+
+    private ProductSearchIndex index;
+    private List<Product> catalogue;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = Integer.getInteger("benchmark.products", products);
+        catalogue = catalogue(products, 42);
+        index = new ProductSearchIndex(64, 2, 4, 0.2, 1000);
+        for (int from = 0; from < catalogue.size(); from += 1000) {
+            index.indexAll(catalogue.subList(from, Math.min(from + 1000, catalogue.size())));
+        }
+        nextId = products + 1;
+    }
+
+    static List<Product> catalogue(int count, long seed) {
+        Random random = new Random(seed);
+        List<Product> catalogue = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            catalogue.add(product(id, random));
+        }
+        return catalogue;
+    }
+
+    private static Product product(int id, Random random) {
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        // A model code per product keeps the vocabulary realistically large
+        String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " " + Integer.toString(id, 36);
+        String description = "The " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " for everyday use, "
+                + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " finish";
+        Product product = new Product();
+        product.setProductId(id);
+        product.setUserId(1 + random.nextInt(500));
+        product.setProductName(name);
+        product.setProductCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        product.setProductPrice(1 + random.nextInt(100_000) / 100.0);
+        product.setProductQuantity(random.nextInt(1000));
+        product.setProductDescription(description);
+        return product;
+    }
+
+    @Benchmark
+    public Object exactTwoTerms() {
+        return index.search(new ProductSearchQuery("wireless headphones", null, null, null, null, false, 0, 20));
+    }
+
+    @Benchmark
+    public Object prefixAsYouType() {
+        return index.search(new ProductSearchQuery("leather wal", null, null, null, null, true, 0, 20));
+    }
+
+    @Benchmark
+    public Object typo() {
+        return index.search(new ProductSearchQuery("headphnoes", null, null, null, null, false, 0, 20));
+    }
+
+    @Benchmark
+    public Object facetedWithFilters() {
+        return index.search(new ProductSearchQuery("smart watch", "Electronics", null, 50.0, 300.0, false, 0, 20));
+    }
+
+    @Benchmark
+    public void update() {
+        Product product = catalogue.get(nextId % catalogue.size());
+        product.setProductPrice(product.getProductPrice() + 1);
+        index.index(product);
+        nextId++;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
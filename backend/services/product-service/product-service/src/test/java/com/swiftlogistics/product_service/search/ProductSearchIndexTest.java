@@ -0,0 +1,123 @@
+package com.swiftlogistics.product_service.search;
+
+import com.swiftlogistics.product_service.dto.ProductSearchHit;
+import com.swiftlogistics.product_service.dto.ProductSearchResult;
+import com.swiftlogistics.product_service.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(64, 2, 4, 0.2, 1000);
+        index.indexAll(List.of(
+                product(1, "Wireless headphones", "Electronics", 120.0, "Noise cancelling over-ear headphones"),
+                product(2, "Leather wallet", "Fashion", 35.0, "Slim wallet in brown leather"),
+                product(3, "Headset stand", "Electronics", 25.0, "Holds any headset or headphones"),
+                product(4, "Steel water bottle", "Kitchen", 18.0, "Keeps drinks cold")));
+    }
+
+    @Test
+    void oneTypoStillMatches() {
+        assertEquals(List.of(2), ids(search("walet", false)));
+        assertEquals(List.of(2), ids(search("lether wallet", false)));
+        // Transposition
+        assertEquals(List.of(4), ids(search("bottel", false)));
+        // Two edits away is no match
+        assertEquals(List.of(), ids(search("wlaet", false)));
+    }
+
+    @Test
+    void exactMatchOutranksTypo() {
+        index.index(product(5, "Bottle opener", "Kitchen", 5.0, null));
+        index.index(product(6, "Bottles of water", "Kitchen", 5.0, null));
+        List<Integer> ids = ids(search("bottle", false));
+        assertEquals(List.of(4, 5, 6), ids.stream().sorted().toList());
+        assertNotEquals(6, ids.get(0));
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixOnlyWhenAsked() {
+        assertEquals(List.of(), ids(search("head", false)));
+        List<Integer> ids = ids(search("head", true));
+        assertEquals(List.of(1, 3), ids.stream().sorted().toList());
+        // Only the last term is a prefix
+        assertEquals(List.of(1), ids(search("wireless head", true)));
+        assertEquals(List.of(), ids(search("wire headphones", true)));
+    }
+
+    @Test
+    void blankQueryBrowsesInIndexOrderWithFacets() {
+        ProductSearchResult all = index.search(new ProductSearchQuery("", null, null, null, null, false, 0, 2));
+        assertEquals(4, all.getTotal());
+        assertEquals(List.of(1, 2), ids(all));
+        assertEquals(2, all.getFacets().get("category").get("Electronics"));
+
+        ProductSearchResult second = index.search(new ProductSearchQuery(null, null, null, null, null, false, 1, 2));
+        assertEquals(List.of(3, 4), ids(second));
+
+        ProductSearchResult filtered = index.search(new ProductSearchQuery(" ", "electronics", null, 30.0, null, false, 0, 10));
+        assertEquals(1, filtered.getTotal());
+        assertEquals(List.of(1), ids(filtered));
+    }
+
+    @Test
+    void deletedAndReplacedProductsDisappearAcrossCompaction() {
+        List<Product> bulk = new ArrayList<>();
+        for (int id = 100; id < 3100; id++) {
+            bulk.add(product(id, "Camping lantern " + id, "Outdoor", 40.0, null));
+        }
+        index.indexAll(bulk);
+        assertEquals(3004, index.size());
+
+        // Enough dead entries (>= 1024 and >= 20%) to trigger a compaction
+        for (int id = 100; id < 2100; id++) {
+            index.remove(id);
+        }
+        index.index(product(2, "Canvas wallet", "Fashion", 20.0, null));
+
+        assertEquals(1004, index.size());
+        assertEquals(1000, search("lantern", false).getTotal());
+        assertEquals(List.of(), ids(search("leather", false)));
+        assertEquals(List.of(2), ids(search("canvas", false)));
+        assertEquals(List.of(1, 3), ids(search("headphones", false)).stream().sorted().toList());
+
+        ProductSearchResult browse = index.search(new ProductSearchQuery("", "Outdoor", null, null, null, false, 0, 3));
+        assertEquals(1000, browse.getTotal());
+        assertEquals(List.of(2100, 2101, 2102), ids(browse));
+        assertEquals(1000, browse.getFacets().get("category").get("Outdoor"));
+
+        // Still writable after compaction
+        index.remove(2100);
+        index.index(product(2100, "Camping lantern, solar", "Outdoor", 45.0, null));
+        assertEquals(List.of(2100), ids(search("solar", false)));
+        assertEquals(1000, search("lantern", false).getTotal());
+    }
+
+    private ProductSearchResult search(String text, boolean prefix) {
+        return index.search(new ProductSearchQuery(text, null, null, null, null, prefix, 0, 20));
+    }
+
+    private static List<Integer> ids(ProductSearchResult result) {
+        return result.getHits().stream().map(ProductSearchHit::getProductId).toList();
+    }
+
+    private static Product product(int id, String name, String category, Double price, String description) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setUserId(1);
+        product.setProductName(name);
+        product.setProductCategory(category);
+        product.setProductPrice(price);
+        product.setProductDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,210 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.dto.StockReservationRequest;
+import com.swiftlogistics.product_service.dto.StockReservationResult;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HotStockLedger against a real (in-memory H2, PostgreSQL mode) database: whatever
+ * the interleaving, units are sold at most once and every unsold unit ends up back on
+ * products.stock_quantity.
+ */
+class HotStockLedgerTest {
+
+    private static final int PRODUCT = 1;
+    private static final int STOCK = 500;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final List<HotStockLedger> ledgers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(8);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        StockReservationBenchmark.createSchema(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO products (product_id, name, stock_quantity) VALUES (?, 'Hot', ?)", PRODUCT, STOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgers.forEach(HotStockLedger::stop);
+        dataSource.close();
+    }
+
+    @Test
+    void concurrentReservesNeverSellMoreThanWasLeased() throws Exception {
+        HotStockLedger ledger = start("a", 100);
+        StockReservationService service = new StockReservationService(jdbcTemplate, transactionTemplate,
+                new CatalogVersion(null, null, Long.MAX_VALUE), ledger, null, 600, 3600, 500, 60);
+
+        AtomicLong reserved = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 60; i++) {
+                    int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                    StockReservationResult result = service.reserve(new StockReservationRequest(UUID.randomUUID().toString(),
+                            List.of(new StockReservationRequest.Item(PRODUCT, quantity)), null));
+                    if (result.isReserved()) {
+                        reserved.addAndGet(quantity);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // ~1900 units asked for, 500 on hand
+        assertTrue(reserved.get() <= STOCK, "reserved " + reserved.get());
+        assertEquals(reserved.get(), soldInReservations());
+        assertEquals(reserved.get(), jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(sold), 0) FROM hot_stock_leases", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hot_stock_leases WHERE sold > leased", Integer.class));
+        assertConserved();
+    }
+
+    @Test
+    void failedTakesPutBackWhatTheyTookUnderContention() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8);
+        counter.add(10_000);
+        AtomicLong taken = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            boolean greedy = t % 4 == 0;
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    // Greedy takers span every stripe and mostly fail, putting units back as they go
+                    long quantity = greedy ? 2_000 + ThreadLocalRandom.current().nextInt(4_000)
+                            : 1 + ThreadLocalRandom.current().nextInt(5);
+                    if (counter.tryTake(quantity)) {
+                        taken.addAndGet(quantity);
+                    }
+                    assertTrue(counter.sum() >= 0);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        long left = counter.sum();
+        assertEquals(10_000, taken.get() + left);
+        // Nothing is stranded: what's left can still be taken in one go, and no more
+        assertFalse(counter.tryTake(left + 1));
+        assertTrue(left == 0 || counter.tryTake(left));
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void reclaimedLeaseFailsTheBatchAndReturnsItsUnits() throws InterruptedException {
+        HotStockLedger slow = start("a", 100);
+        assertTrue(reserve(slow, 5).isReserved());
+        // Let the flusher's first maintenance pass (and its only heartbeat, at heartbeat-ms = 1h) go by
+        Thread.sleep(300);
+
+        // The instance looked dead for longer than lease-expiry-ms; a peer took its lease back
+        jdbcTemplate.update("UPDATE hot_stock_leases SET heartbeat_at = ?", LocalDateTime.now().minusHours(1));
+        HotStockLedger peer = start("b", 100);
+        assertEquals(STOCK - 5 - 100, stockQuantity());
+
+        String reservationId = UUID.randomUUID().toString();
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> slow.reserve(reservationId, items(3), LocalDateTime.now(), LocalDateTime.now().plusMinutes(10)));
+        assertTrue(e.getMessage().contains("was reclaimed"), e.getMessage());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stock_reservations WHERE reservation_id = ?", Integer.class, reservationId));
+        assertEquals(5, soldInReservations());
+        assertConserved();
+
+        // The slow instance leases again instead of selling from the lost lease
+        assertTrue(reserve(slow, 3).isReserved());
+        assertEquals(8, soldInReservations());
+        assertConserved();
+        peer.stop();
+    }
+
+    @Test
+    void stopAndRestartReturnUnsoldUnitsToTheProduct() {
+        HotStockLedger ledger = start("a", 100);
+        assertTrue(reserve(ledger, 7).isReserved());
+        assertEquals(STOCK - 100, stockQuantity());
+
+        ledger.stop();
+        assertEquals(STOCK - 7, stockQuantity());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hot_stock_leases", Integer.class));
+
+        // A crash leaves the lease behind; the same instance takes it back when it starts again
+        HotStockLedger crashed = start("a", 100);
+        assertTrue(reserve(crashed, 2).isReserved());
+        HotStockLedger restarted = start("a", 100);
+        assertEquals(STOCK - 9 - 100, stockQuantity());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hot_stock_leases", Integer.class));
+        assertConserved();
+
+        restarted.stop();
+        assertEquals(STOCK - 9, stockQuantity());
+    }
+
+    private HotStockLedger start(String instanceId, long leaseSize) {
+        HotStockLedger ledger = new HotStockLedger(jdbcTemplate, transactionTemplate, List.of(PRODUCT), instanceId,
+                leaseSize, 0, 4, 64, 5000, 3_600_000, 30_000, 50);
+        ledger.start();
+        ledgers.add(ledger);
+        return ledger;
+    }
+
+    private StockReservationResult reserve(HotStockLedger ledger, int quantity) {
+        return ledger.reserve(UUID.randomUUID().toString(), items(quantity), LocalDateTime.now(),
+                LocalDateTime.now().plusMinutes(10));
+    }
+
+    private static TreeMap<Integer, Integer> items(int quantity) {
+        TreeMap<Integer, Integer> items = new TreeMap<>();
+        items.put(PRODUCT, quantity);
+        return items;
+    }
+
+    private long stockQuantity() {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE product_id = ?", Long.class, PRODUCT);
+    }
+
+    private long soldInReservations() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM stock_reservation_lines", Long.class);
+    }
+
+    // Every unit is on the product, reserved, or leased and unsold
+    private void assertConserved() {
+        long unsold = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(leased - sold), 0) FROM hot_stock_leases", Long.class);
+        assertEquals(STOCK, stockQuantity() + soldInReservations() + unsold);
+    }
+}
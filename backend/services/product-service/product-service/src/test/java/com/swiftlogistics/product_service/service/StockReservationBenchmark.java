@@ -0,0 +1,140 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.dto.StockReservationRequest;
+import com.swiftlogistics.product_service.dto.StockReservationResult;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation throughput and latency under contention, against a real database.
+ * hotSku has every thread reserving the same product, which is the worst case
+ * for the conditional UPDATE: all of them queue on one row lock. spreadSkus is
+ * the same load spread over the catalogue, and hotSkuInOrder puts the hot product
+ * in a five-line order, so the lock is held across the other updates too.
+ * leasedHotSku is hotSku for a product flagged in HotStockLedger, sold from
+ * in-memory leases and recorded in group commits.
+ *
+ * Needs Postgres and is not run by Surefire; start it with
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.swiftlogistics.product_service.service.StockReservationBenchmark
+ *
+ * The tables are created in -Dbenchmark.jdbc.url (default: the
+ * swiftlogistics_productdb_bench database), which is emptied on every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(16)
+@Fork(1)
+public class StockReservationBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int HOT_PRODUCT = 1;
+    private static final int LEASED_HOT_PRODUCT = 2;
+
+    private HikariDataSource dataSource;
+    private StockReservationService service;
+    private HotStockLedger hotStockLedger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("benchmark.jdbc.url",
+                "jdbc:postgresql://localhost:5432/swiftlogistics_productdb_bench?reWriteBatchedInserts=true"));
+        dataSource.setUsername(System.getProperty("benchmark.jdbc.user", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.jdbc.password", "1234"));
+        dataSource.setMaximumPoolSize(32);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        createSchema(jdbcTemplate);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            rows.add(new Object[]{id, "Product " + id, Integer.MAX_VALUE / 2});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (product_id, name, stock_quantity, version, updated_at) "
+                + "VALUES (?, ?, ?, 0, CURRENT_TIMESTAMP)", rows);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // Only advanceTo is used on this path, so the catalogue version needs no repositories
+        CatalogVersion catalogVersion = new CatalogVersion(null, null, Long.MAX_VALUE);
+        hotStockLedger = new HotStockLedger(jdbcTemplate, transactionTemplate, List.of(LEASED_HOT_PRODUCT),
+                "benchmark", 100_000, 25_000, 16, 1024, 5000, 5000, 30000, 1000);
+        hotStockLedger.start();
+        // The sweeper and reconciler are not benchmarked, so no order-service lookup is needed
+        service = new StockReservationService(jdbcTemplate, transactionTemplate, catalogVersion, hotStockLedger, null,
+                600, 3600, 500, 60);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hotStockLedger.stop();
+        dataSource.close();
+    }
+
+    static void createSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS products (product_id INT PRIMARY KEY, name VARCHAR(255), "
+                + "stock_quantity INT, version BIGINT DEFAULT 0, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_reservations (reservation_id VARCHAR(64) PRIMARY KEY, "
+                + "status VARCHAR(16), order_id INT, expires_at TIMESTAMP, created_at TIMESTAMP, verified_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_reservation_lines (reservation_id VARCHAR(64), "
+                + "product_id INT, quantity INT, PRIMARY KEY (reservation_id, product_id))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS hot_stock_leases (lease_id VARCHAR(64) PRIMARY KEY, product_id INT, "
+                + "instance_id VARCHAR(128), leased BIGINT, sold BIGINT, heartbeat_at TIMESTAMP)");
+        jdbcTemplate.execute("DELETE FROM hot_stock_leases");
+        jdbcTemplate.execute("DELETE FROM stock_reservation_lines");
+        jdbcTemplate.execute("DELETE FROM stock_reservations");
+        jdbcTemplate.execute("DELETE FROM products");
+    }
+
+    @Benchmark
+    public StockReservationResult hotSku() {
+        return reserve(HOT_PRODUCT);
+    }
+
+    @Benchmark
+    public StockReservationResult leasedHotSku() {
+        return reserve(LEASED_HOT_PRODUCT);
+    }
+
+    @Benchmark
+    public StockReservationResult spreadSkus() {
+        return reserve(3 + ThreadLocalRandom.current().nextInt(PRODUCTS - 2));
+    }
+
+    @Benchmark
+    public StockReservationResult hotSkuInOrder() {
+        int[] productIds = new int[5];
+        productIds[0] = HOT_PRODUCT;
+        for (int i = 1; i < productIds.length; i++) {
+            productIds[i] = 3 + ThreadLocalRandom.current().nextInt(PRODUCTS - 2);
+        }
+        return reserve(productIds);
+    }
+
+    private StockReservationResult reserve(int... productIds) {
+        List<StockReservationRequest.Item> items = new ArrayList<>(productIds.length);
+        for (int productId : productIds) {
+            items.add(new StockReservationRequest.Item(productId, 1));
+        }
+        return service.reserve(new StockReservationRequest(UUID.randomUUID().toString(), items, null));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StockReservationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
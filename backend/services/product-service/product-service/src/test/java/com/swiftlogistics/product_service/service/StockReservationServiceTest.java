@@ -0,0 +1,89 @@
+package com.swiftlogistics.product_service.service;
+
+import com.swiftlogistics.product_service.dto.StockReservationRequest;
+import com.swiftlogistics.product_service.dto.StockReservationResult;
+import com.swiftlogistics.product_service.model.ReservationStatus;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A failed order releases its reservation by id, possibly before order-service has
+ * committed it; the late commit must then be refused and the stock stay released.
+ */
+class StockReservationServiceTest {
+
+    private static final int PRODUCT = 1;
+    private static final int STOCK = 50;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        StockReservationBenchmark.createSchema(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO products (product_id, name, stock_quantity) VALUES (?, 'Lamp', ?)", PRODUCT, STOCK);
+
+        HotStockLedger noHotProducts = new HotStockLedger(jdbcTemplate, transactionTemplate, List.of(), "test",
+                100, 0, 4, 64, 5000, 3_600_000, 30_000, 50);
+        service = new StockReservationService(jdbcTemplate, transactionTemplate,
+                new CatalogVersion(null, null, Long.MAX_VALUE), noHotProducts, null, 600, 3600, 500, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void releaseBeforeCommitRefusesTheCommit() {
+        String reservationId = reserve(4);
+        assertEquals(STOCK - 4, stockQuantity());
+
+        assertEquals(ReservationStatus.RELEASED, service.release(reservationId).getStatus());
+        assertEquals(STOCK, stockQuantity());
+
+        assertThrows(IllegalStateException.class, () -> service.commit(reservationId, 7));
+        assertEquals(ReservationStatus.RELEASED, service.release(reservationId).getStatus());
+        assertEquals(STOCK, stockQuantity());
+    }
+
+    @Test
+    void releaseAfterCommitRestocksOnce() {
+        String reservationId = reserve(4);
+        service.commit(reservationId, 7);
+        // A repeated commit is a no-op
+        assertEquals(ReservationStatus.COMMITTED, service.commit(reservationId, 7).getStatus());
+
+        assertEquals(ReservationStatus.RELEASED, service.release(reservationId).getStatus());
+        service.release(reservationId);
+        assertEquals(STOCK, stockQuantity());
+        assertThrows(IllegalStateException.class, () -> service.commit(reservationId, 7));
+    }
+
+    private String reserve(int quantity) {
+        String reservationId = UUID.randomUUID().toString();
+        StockReservationResult result = service.reserve(new StockReservationRequest(reservationId,
+                List.of(new StockReservationRequest.Item(PRODUCT, quantity)), null));
+        assertTrue(result.isReserved());
+        return reservationId;
+    }
+
+    private int stockQuantity() {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE product_id = ?", Integer.class, PRODUCT);
+    }
+}
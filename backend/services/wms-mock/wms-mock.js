@@ -1,14 +1,22 @@
 const net = require('net');
 const PORT = 3003;
 
+// Messages are newline-framed so clients can pipeline several per socket;
+// each line is acknowledged with `ACK:<line>\n` in the order received.
 const server = net.createServer(socket => {
     console.log('WMS client connected');
+    let buffer = '';
 
     socket.on('data', data => {
-        const msg = data.toString();
-        console.log('Received:', msg);
-        // Send an acknowledgment
-        socket.write(`ACK:${msg}`);
+        buffer += data.toString();
+        let newline;
+        while ((newline = buffer.indexOf('\n')) >= 0) {
+            const msg = buffer.slice(0, newline);
+            buffer = buffer.slice(newline + 1);
+            console.log('Received:', msg);
+            // Send an acknowledgment
+            socket.write(`ACK:${msg}\n`);
+        }
     });
 
     socket.on('close', () => console.log('Client disconnected'));
@@ -12,22 +12,34 @@ class ProductService {
       throw Exception("User not authenticated. Token not found.");
     }
 
-    final url = Uri.parse("http://localhost:8080/api/product/category/$category");
-
-    final response = await http.get(
-      url,
-      headers: {
-        'Authorization': 'Bearer $token',
-        'Content-Type': 'application/json',
-      },
-    );
-
-    if (response.statusCode == 200) {
-      final List<dynamic> data = json.decode(response.body);
-      return data.map((json) => Item.fromJson(json)).toList();
-    } else {
-      throw Exception("Failed to load products: ${response.statusCode}");
-    }
+    final items = <Item>[];
+    String? cursor;
+
+    // Listings are paged: {"products": [...], "nextCursor": "..."}, follow the cursor until it runs out
+    do {
+      final url = Uri.parse("http://localhost:8080/api/product/category/$category").replace(
+        queryParameters: cursor == null ? null : {'cursor': cursor},
+      );
+
+      final response = await http.get(
+        url,
+        headers: {
+          'Authorization': 'Bearer $token',
+          'Content-Type': 'application/json',
+        },
+      );
+
+      if (response.statusCode != 200) {
+        throw Exception("Failed to load products: ${response.statusCode}");
+      }
+
+      final body = json.decode(response.body);
+      final List<dynamic> data = body['products'];
+      items.addAll(data.map((json) => Item.fromJson(json)));
+      cursor = body['nextCursor'];
+    } while (cursor != null);
+
+    return items;
   }
   static Future<Item?> fetchProductById(int productId) async {
   final prefs = await SharedPreferences.getInstance();